@@ -0,0 +1,66 @@
+package com.infilos.relax.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Json;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Writes and reads the documents of {@link JsonBenchmark} as JSON bytes, Smile and CBOR,
+ * the encoded sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"small", "wide", "deep"})
+    public String shape;
+
+    private Json document;
+    private byte[] json;
+    private byte[] smile;
+    private byte[] cbor;
+
+    @Setup
+    public void setup() {
+        document = Json.from(Corpora.document(shape));
+        json = document.asBytes();
+        smile = document.asSmile();
+        cbor = document.asCbor();
+        System.out.printf("%n%s sizes: json %d, smile %d, cbor %d bytes%n", shape, json.length, smile.length, cbor.length);
+    }
+
+    @Benchmark
+    public byte[] asBytes() {
+        return document.asBytes();
+    }
+
+    @Benchmark
+    public byte[] asSmile() {
+        return document.asSmile();
+    }
+
+    @Benchmark
+    public byte[] asCbor() {
+        return document.asCbor();
+    }
+
+    @Benchmark
+    public Json fromBytes() {
+        return Json.from(json);
+    }
+
+    @Benchmark
+    public Json fromSmile() {
+        return Json.fromSmile(smile);
+    }
+
+    @Benchmark
+    public Json fromCbor() {
+        return Json.fromCbor(cbor);
+    }
+}
@@ -0,0 +1,59 @@
+package com.infilos.relax.benchmark;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.infilos.relax.JsonFlattener;
+import com.infilos.relax.JsonStreamFlattener;
+import com.infilos.relax.flat.FlattenerConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Flattens the objects of {@link FlattenDeepObjectBenchmark} with a {@link FlattenerConfig}, optionally transforming keys,
+ * into a map or straight from the JSON text with {@link JsonStreamFlattener}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenConfigBenchmark {
+
+    @Param({"8", "32", "128"})
+    public int depth;
+
+    @Param({"4", "16"})
+    public int width;
+
+    @Param({"false", "true"})
+    public boolean transformKeys;
+
+    private JsonNode document;
+    private String json;
+    private FlattenerConfig config;
+
+    @Setup
+    public void setup() {
+        ObjectNode root = Corpora.deepObject(depth, width);
+        document = root;
+        json = root.toString();
+        config = transformKeys
+            ? FlattenerConfig.DEFAULT.withKeyTransformer(String::toUpperCase)
+            : FlattenerConfig.DEFAULT;
+    }
+
+    @Benchmark
+    public Map<String, Object> flattenAsMap() {
+        return JsonFlattener.flattenAsMap(document, config);
+    }
+
+    @Benchmark
+    public void flattenStream(Blackhole blackhole) {
+        new JsonStreamFlattener(config).flattenTo(new StringReader(json), (key, value) -> blackhole.consume(key));
+    }
+}
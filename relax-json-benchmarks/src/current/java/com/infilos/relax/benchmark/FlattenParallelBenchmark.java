@@ -0,0 +1,43 @@
+package com.infilos.relax.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.infilos.relax.JsonFlattener;
+import com.infilos.relax.flat.FlattenerConfig;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Flattens the root arrays of {@link FlattenLargeArrayBenchmark} sequentially or split into ForkJoin tasks of {@code splitThreshold} records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenParallelBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0", "256", "4096"})
+    public int splitThreshold;
+
+    private JsonNode document;
+    private FlattenerConfig config;
+
+    @Setup
+    public void setup() {
+        document = Corpora.records(size);
+        config = splitThreshold > 0
+            ? FlattenerConfig.DEFAULT.withParallelism(splitThreshold)
+            : FlattenerConfig.DEFAULT;
+    }
+
+    @Benchmark
+    public Map<String, Object> flattenAsMap() {
+        return JsonFlattener.flattenAsMap(document, config);
+    }
+}
@@ -0,0 +1,33 @@
+package com.infilos.relax.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Json;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Passes the documents of {@link JsonBenchmark} through unchanged with a lazy {@link Json}, which never parses them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyJsonBenchmark {
+
+    @Param({"small", "wide", "deep"})
+    public String shape;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bytes = Json.from(Corpora.document(shape)).asBytes();
+    }
+
+    @Benchmark
+    public byte[] lazyPassThrough() {
+        return Json.lazy(bytes).asBytes();
+    }
+}
@@ -0,0 +1,87 @@
+package com.infilos.relax.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Json;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Binds a small order with nested lines, through the tree model of {@link Json} or straight through the cached readers and writers,
+ * and round-trips it on the default mapper and on the fast mapper of {@link Json#fast()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PojoBenchmark {
+
+    public static class Line {
+        public String sku;
+        public int quantity;
+        public double price;
+    }
+
+    public static class Order {
+        public long id;
+        public String customer;
+        public boolean paid;
+        public List<Line> lines;
+    }
+
+    private Order order;
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        order = new Order();
+        order.id = 42L;
+        order.customer = "customer-42";
+        order.paid = true;
+        order.lines = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Line line = new Line();
+            line.sku = "sku-" + i;
+            line.quantity = i + 1;
+            line.price = 9.99 * i;
+            order.lines.add(line);
+        }
+        json = Json.write(order);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Order readThroughTree() {
+        return Json.from(bytes).asObject(Order.class);
+    }
+
+    @Benchmark
+    public Order readValue() {
+        return Json.readValue(bytes, Order.class);
+    }
+
+    @Benchmark
+    public String writeThroughTree() {
+        return Json.from(order).asString();
+    }
+
+    @Benchmark
+    public String write() {
+        return Json.write(order);
+    }
+
+    @Benchmark
+    public Order roundTrip() {
+        return Json.readValue(Json.writeAsBytes(order), Order.class);
+    }
+
+    @Benchmark
+    public Order fastRoundTrip() {
+        return Json.fast().readValue(Json.fast().writeAsBytes(order), Order.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.infilos.relax.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Table;
+import com.infilos.relax.iterator.TableIterator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterates the tables of {@link TableIteratorBenchmark} cast to the field types into one reused row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableIteratorReuseBenchmark {
+
+    @Param({"csv", "json"})
+    public String format;
+
+    @Param({"1000", "20000"})
+    public int rows;
+
+    @Param({"6", "60"})
+    public int columns;
+
+    private Table table;
+
+    @Setup
+    public void setup() throws Exception {
+        table = TableIteratorBenchmark.table(format, rows, columns);
+    }
+
+    @Benchmark
+    public void iterateCastReused(Blackhole blackhole) throws Exception {
+        TableIterator<Object[]> iterator = new TableIterator<>(table, false, false, true, false);
+        Object[] row = null;
+        while (iterator.hasNext()) {
+            row = iterator.next(row);
+            blackhole.consume(row);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.infilos.relax.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.JsonCompactor;
+import com.infilos.relax.JsonFlattener;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compacts flattened documents back into nested ones, from a flattened string and from a flattened map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactBenchmark {
+
+    @Param({"1", "16"})
+    public int depth;
+
+    @Param({"8", "256"})
+    public int width;
+
+    private String flattened;
+    private Map<String, Object> flattenedMap;
+
+    @Setup
+    public void setup() {
+        JsonFlattener flattener = new JsonFlattener(Corpora.document(width, depth));
+        flattened = flattener.flatten();
+        flattenedMap = flattener.flattenAsMap();
+    }
+
+    @Benchmark
+    public String compact() {
+        return JsonCompactor.compact(flattened);
+    }
+
+    @Benchmark
+    public Map<String, Object> compactAsMap() {
+        return JsonCompactor.compactAsMap(flattenedMap);
+    }
+}
@@ -0,0 +1,76 @@
+package com.infilos.relax.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.infilos.relax.Json;
+
+/**
+ * Compares two JMH JSON result files, like the results of two versions, benchmark by benchmark.
+ * <br>
+ * Usage: {@code java -cp benchmarks.jar com.infilos.relax.benchmark.CompareResults base.json head.json}
+ * <br>
+ * For every benchmark and parameter combination of both files, prints the primary score of each file and head/base,
+ * and the normalized allocation per operation if the results were recorded with {@code -prof gc}.
+ */
+public final class CompareResults {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <base.json> <head.json>");
+            System.exit(2);
+        }
+
+        Map<String, JsonNode> base = load(args[0]);
+        Map<String, JsonNode> head = load(args[1]);
+
+        System.out.printf("%-80s %14s %14s %8s %14s %14s%n", "Benchmark", "Base", "Head", "Ratio", "Base B/op", "Head B/op");
+        for (Map.Entry<String, JsonNode> result : base.entrySet()) {
+            JsonNode other = head.get(result.getKey());
+            if (other == null) {
+                continue;
+            }
+
+            double baseScore = result.getValue().path("primaryMetric").path("score").asDouble();
+            double headScore = other.path("primaryMetric").path("score").asDouble();
+            System.out.printf("%-80s %14.3f %14.3f %8.3f %14s %14s%n",
+                result.getKey(), baseScore, headScore, headScore / baseScore,
+                allocation(result.getValue()), allocation(other));
+        }
+    }
+
+    private static Map<String, JsonNode> load(String file) throws IOException {
+        JsonNode results = Json.from(Files.readAllBytes(Paths.get(file))).asJsonNode();
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byName.put(name.toString(), result);
+        }
+        return byName;
+    }
+
+    private static String allocation(JsonNode result) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION)) {
+                return String.format("%.1f", metric.getValue().path("score").asDouble());
+            }
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,171 @@
+package com.infilos.relax.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.infilos.relax.Json;
+
+/**
+ * Deterministic synthetic corpora shared by the benchmarks, so two versions always measure the same input.
+ * <br>
+ * Table columns cycle through integer, number, boolean, date, string and year values,
+ * which exercises every cast of {@code TableIterator} and a different path of {@code TypeInferrer} per column.
+ */
+final class Corpora {
+    private static final String[] COLUMN_TYPES = {"integer", "number", "boolean", "date", "string", "year"};
+
+    private Corpora() {
+    }
+
+    /**
+     * Returns the document of a shape, "small" for a flat record, "wide" for 2000 members, or "deep" for 64 nested levels.
+     */
+    static ObjectNode document(String shape) {
+        switch (shape) {
+            case "small":
+                return document(8, 1);
+            case "wide":
+                return document(2000, 1);
+            default:
+                return document(8, 64);
+        }
+    }
+
+    /**
+     * Returns an object with {@code width} members of mixed types on each of {@code depth} nested levels.
+     */
+    static ObjectNode document(int width, int depth) {
+        ObjectNode root = Json.createObjectNode();
+        ObjectNode level = root;
+        for (int d = 0; d < depth; d++) {
+            for (int w = 0; w < width; w++) {
+                String name = "field_" + w;
+                switch (w % 5) {
+                    case 0:
+                        level.put(name, (long) d * width + w);
+                        break;
+                    case 1:
+                        level.put(name, d + w / 8.0);
+                        break;
+                    case 2:
+                        level.put(name, w % 2 == 0);
+                        break;
+                    case 3:
+                        level.putArray(name).add(d).add("item_" + w).addNull();
+                        break;
+                    default:
+                        level.put(name, "value \"" + d + "\" of\t" + w);
+                }
+            }
+            if (d + 1 < depth) {
+                level = level.putObject("level_" + d);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Returns objects nested {@code depth} levels deep with {@code width} string leaves and a short array on every level.
+     */
+    static ObjectNode deepObject(int depth, int width) {
+        ObjectNode root = Json.createObjectNode();
+        ObjectNode level = root;
+        for (int d = 0; d < depth; d++) {
+            for (int w = 0; w < width; w++) {
+                level.put("field_" + w, "value_" + d + "_" + w);
+            }
+            level.putArray("items").add(d).add(d + 1);
+            level = level.putObject("level_" + d);
+        }
+        level.put("leaf", true);
+        return root;
+    }
+
+    /**
+     * Returns a root array of {@code size} small records, the shape of batch exports.
+     */
+    static ArrayNode records(int size) {
+        ArrayNode root = Json.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            ObjectNode record = root.addObject();
+            record.put("id", i);
+            record.put("name", "record_" + i);
+            record.put("score", i * 0.5);
+            record.putObject("owner").put("id", i % 97).put("active", i % 2 == 0);
+            record.putArray("tags").add("a" + i % 7).add("b" + i % 11);
+        }
+        return root;
+    }
+
+    static String[] headers(int columns) {
+        String[] headers = new String[columns];
+        for (int c = 0; c < columns; c++) {
+            headers[c] = "c" + c;
+        }
+        return headers;
+    }
+
+    static String value(int row, int column) {
+        switch (COLUMN_TYPES[column % COLUMN_TYPES.length]) {
+            case "integer":
+                return String.valueOf(row * 31L + column);
+            case "number":
+                return String.valueOf(row + column / 100.0);
+            case "boolean":
+                return row % 2 == 0 ? "true" : "false";
+            case "date":
+                return String.format("20%02d-%02d-%02d", row % 30, row % 12 + 1, row % 28 + 1);
+            case "year":
+                return String.valueOf(1900 + row % 200);
+            default:
+                return "text " + row + "/" + column;
+        }
+    }
+
+    static List<String[]> rows(int rows, int columns) {
+        List<String[]> data = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            String[] row = new String[columns];
+            for (int c = 0; c < columns; c++) {
+                row[c] = value(r, c);
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    static String csvTable(int rows, int columns) {
+        StringBuilder csv = new StringBuilder(rows * columns * 8);
+        csv.append(String.join(",", headers(columns))).append('\n');
+        for (String[] row : rows(rows, columns)) {
+            csv.append(String.join(",", row)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    static String jsonArrayTable(int rows, int columns) {
+        String[] headers = headers(columns);
+        ArrayNode array = Json.createArrayNode();
+        for (String[] row : rows(rows, columns)) {
+            ObjectNode object = array.addObject();
+            for (int c = 0; c < columns; c++) {
+                object.put(headers[c], row[c]);
+            }
+        }
+        return array.toString();
+    }
+
+    static String schema(int columns) {
+        ArrayNode fields = Json.createArrayNode();
+        for (int c = 0; c < columns; c++) {
+            fields.addObject()
+                .put("name", "c" + c)
+                .put("type", COLUMN_TYPES[c % COLUMN_TYPES.length]);
+        }
+        ObjectNode schema = Json.createObjectNode();
+        schema.set("fields", fields);
+        return schema.toString();
+    }
+}
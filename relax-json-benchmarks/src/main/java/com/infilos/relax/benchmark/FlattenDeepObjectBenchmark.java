@@ -0,0 +1,38 @@
+package com.infilos.relax.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.JsonFlattener;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Flattens objects nested {@code depth} levels deep with {@code width} leaves on every level,
+ * where the cost of building keys grows with the depth of each leaf.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenDeepObjectBenchmark {
+
+    @Param({"8", "32", "128"})
+    public int depth;
+
+    @Param({"4", "16"})
+    public int width;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = Corpora.deepObject(depth, width).toString();
+    }
+
+    @Benchmark
+    public Map<String, Object> flattenAsMap() {
+        return JsonFlattener.flattenAsMap(json);
+    }
+}
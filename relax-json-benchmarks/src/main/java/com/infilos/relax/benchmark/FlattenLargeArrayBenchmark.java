@@ -0,0 +1,34 @@
+package com.infilos.relax.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.JsonFlattener;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Flattens a root array of {@code size} small records, the shape of batch exports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenLargeArrayBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = Corpora.records(size).toString();
+    }
+
+    @Benchmark
+    public Map<String, Object> flattenAsMap() {
+        return JsonFlattener.flattenAsMap(json);
+    }
+}
@@ -0,0 +1,54 @@
+package com.infilos.relax.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Json;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parses and prints documents through {@link Json}, from a small flat record to wide and deep documents,
+ * and passes documents through unchanged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"small", "wide", "deep"})
+    public String shape;
+
+    private String json;
+    private byte[] bytes;
+    private Json document;
+
+    @Setup
+    public void setup() {
+        document = Json.from(Corpora.document(shape));
+        json = document.asString();
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Json fromString() {
+        return Json.from(json);
+    }
+
+    @Benchmark
+    public Json fromBytes() {
+        return Json.from(bytes);
+    }
+
+    @Benchmark
+    public String asString() {
+        return document.asString();
+    }
+
+    @Benchmark
+    public byte[] passThrough() {
+        return Json.from(bytes).asBytes();
+    }
+}
@@ -0,0 +1,65 @@
+package com.infilos.relax.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.Schema;
+import com.infilos.relax.Table;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iterates every row of a CSV or JSON-array table with a schema, plain, cast to the field types, or keyed by header.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableIteratorBenchmark {
+
+    @Param({"csv", "json"})
+    public String format;
+
+    @Param({"1000", "20000"})
+    public int rows;
+
+    @Param({"6", "60"})
+    public int columns;
+
+    private Table table;
+
+    @Setup
+    public void setup() throws Exception {
+        table = table(format, rows, columns);
+    }
+
+    @Benchmark
+    public void iterateCast(Blackhole blackhole) throws Exception {
+        drain(table.iterator(false, false, true, false), blackhole);
+    }
+
+    @Benchmark
+    public void iteratePlain(Blackhole blackhole) throws Exception {
+        drain(table.iterator(false, false, false, false), blackhole);
+    }
+
+    @Benchmark
+    public void iterateKeyed(Blackhole blackhole) throws Exception {
+        drain(table.keyedIterator(), blackhole);
+    }
+
+    static Table table(String format, int rows, int columns) throws Exception {
+        String data = "csv".equals(format)
+            ? Corpora.csvTable(rows, columns)
+            : Corpora.jsonArrayTable(rows, columns);
+        return Table.fromSource(data, Schema.fromJson(Corpora.schema(columns), true), null);
+    }
+
+    private static void drain(Iterator<?> iterator, Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.infilos.relax.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.infilos.relax.schema.TypeInferrer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Infers the schema of mixed-type tables, where every value is tried against the field types in inferral order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeInferrerBenchmark {
+
+    @Param({"100", "2000"})
+    public int rows;
+
+    @Param({"6", "60"})
+    public int columns;
+
+    private List<Object[]> data;
+    private String[] headers;
+
+    @Setup
+    public void setup() {
+        data = new ArrayList<>(Corpora.rows(rows, columns));
+        headers = Corpora.headers(columns);
+    }
+
+    @Benchmark
+    public String infer() throws Exception {
+        return TypeInferrer.instance().infer(data, headers);
+    }
+}
@@ -4,15 +4,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.*;
 import com.infilos.relax.flat.*;
 
-import static com.infilos.relax.flat.FlattenMode.MONGO;
-import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.StringWriter;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Compact any flattened JSON string back to nested one.
@@ -67,35 +63,61 @@ public final class JsonCompactor {
         return new JsonCompactor(flattenedMap).compactAsMap();
     }
 
-    
-    private final JsonNode root;
+    /**
+     * Returns a JSON string of nested objects by the given flattened JSON string and configuration.
+     *
+     * @param json   a flattened JSON string
+     * @param config a {@link CompactorConfig}
+     * @return a JSON string of nested objects
+     */
+    public static String compact(String json, CompactorConfig config) {
+        return new JsonCompactor(json, config).compact();
+    }
 
-    private FlattenMode flattenMode = FlattenMode.NORMAL;
-    private Character separator = '.';
-    private Character leftBracket = '[';
-    private Character rightBracket = ']';
-    private PrintMode printMode = PrintMode.MINIMAL;
-    private KeyTransformer keyTransformer = null;
-
-    private JsonCompactor createJsonCompactor(JsonNode jsonValue) {
-        JsonCompactor compactor = new JsonCompactor(jsonValue);
-        compactor.withFlattenMode(flattenMode);
-        compactor.withSeparator(separator);
-        compactor.withLeftAndRightBrackets(leftBracket, rightBracket);
-        compactor.withPrintMode(printMode);
-        if (keyTransformer != null) {
-            compactor.withKeyTransformer(keyTransformer);
-        }
+    /**
+     * Returns a JSON string of nested objects by the given flattened Map and configuration.
+     *
+     * @param flattenedMap a flattened Map
+     * @param config       a {@link CompactorConfig}
+     * @return a JSON string of nested objects
+     */
+    public static String compact(Map<String, ?> flattenedMap, CompactorConfig config) {
+        return new JsonCompactor(flattenedMap, config).compact();
+    }
+
+    /**
+     * Returns a Java Map of nested objects by the given flattened JSON string and configuration.
+     *
+     * @param json   a flattened JSON string
+     * @param config a {@link CompactorConfig}
+     * @return a Java Map of nested objects
+     */
+    public static Map<String, Object> compactAsMap(String json, CompactorConfig config) {
+        return new JsonCompactor(json, config).compactAsMap();
+    }
 
-        return compactor;
+    /**
+     * Returns a Java Map of nested objects by the given flattened Map and configuration.
+     *
+     * @param flattenedMap a flattened Map
+     * @param config       a {@link CompactorConfig}
+     * @return a Java Map of nested objects
+     */
+    public static Map<String, Object> compactAsMap(Map<String, ?> flattenedMap, CompactorConfig config) {
+        return new JsonCompactor(flattenedMap, config).compactAsMap();
     }
 
-    private JsonCompactor(JsonNode root) {
+    private final JsonNode root;
+
+    private CompactorConfig config;
+
+    private JsonCompactor(JsonNode root, CompactorConfig config) {
         this.root = root;
+        this.config = config;
     }
 
     public JsonCompactor(String json) {
-        this.root = Json.from(json).asJsonNode();
+        this(json, CompactorConfig.DEFAULT);
     }
 
     /**
@@ -104,29 +126,38 @@ public final class JsonCompactor {
      * @param flattenedMap a flattened Map
      */
     public JsonCompactor(Map<String, ?> flattenedMap) {
-        this.root = Json.from(new JsonifyLinkedHashMap<>(flattenedMap).toString()).asJsonNode();
+        this(flattenedMap, CompactorConfig.DEFAULT);
     }
 
-    private String arrayIndex() {
-        return Pattern.quote(leftBracket.toString()) + "\\s*\\d+\\s*" + Pattern.quote(rightBracket.toString());
-    }
-
-    private String objectComplexKey() {
-        return Pattern.quote(leftBracket.toString()) + "\\s*\".+?\"\\s*" + Pattern.quote(rightBracket.toString());
+    /**
+     * Creates a JSON compactor with a shared configuration, the configuration can still be changed by the fluent setters of this compactor.
+     *
+     * @param json   a flattened JSON string
+     * @param config a {@link CompactorConfig}
+     */
+    public JsonCompactor(String json, CompactorConfig config) {
+        this.root = Json.from(json).asJsonNodeUnsafe();
+        this.config = notNull(config);
     }
 
-    private String objectKey() {
-        return "[^" + Pattern.quote(separator.toString())
-            + Pattern.quote(leftBracket.toString())
-            + Pattern.quote(rightBracket.toString()) + "]+";
+    /**
+     * Creates a JSON compactor by given flattened Map with a shared configuration, the configuration can still be changed by the fluent setters of this compactor.
+     *
+     * @param flattenedMap a flattened Map
+     * @param config       a {@link CompactorConfig}
+     */
+    public JsonCompactor(Map<String, ?> flattenedMap, CompactorConfig config) {
+        this.root = Json.from(new JsonifyLinkedHashMap<>(flattenedMap).toString()).asJsonNodeUnsafe();
+        this.config = notNull(config);
     }
 
-    private Pattern keyPartPattern() {
-        if (flattenMode.equals(MONGO)) {
-            return Pattern.compile("[^" + Pattern.quote(separator.toString()) + "]+");
-        } else {
-            return Pattern.compile(arrayIndex() + "|" + objectComplexKey() + "|" + objectKey());
-        }
+    /**
+     * Returns the current configuration of this JsonCompactor.
+     *
+     * @return a CompactorConfig
+     */
+    public CompactorConfig getConfig() {
+        return config;
     }
 
     /**
@@ -136,7 +167,7 @@ public final class JsonCompactor {
      * @return this JsonCompactor
      */
     public JsonCompactor withFlattenMode(FlattenMode flattenMode) {
-        this.flattenMode = notNull(flattenMode);
+        this.config = config.withFlattenMode(flattenMode);
         return this;
     }
 
@@ -147,21 +178,10 @@ public final class JsonCompactor {
      * @return this JsonCompactor
      */
     public JsonCompactor withSeparator(char separator) {
-        String separatorStr = String.valueOf(separator);
-        isTrue(!separatorStr.matches("[\"\\s]"), "Separator contains illegal character(%s)", separatorStr);
-        isTrue(
-            !leftBracket.equals(separator) && !rightBracket.equals(separator),
-            "Separator(%s) is already used in brackets", separatorStr
-        );
-        this.separator = separator;
-
+        this.config = config.withSeparator(separator);
         return this;
     }
 
-    private String illegalBracketsRegex() {
-        return "[\"\\s" + Pattern.quote(separator.toString()) + "]";
-    }
-
     /**
      * A fluent setter to setup the left and right brackets within a key in the flattened JSON. The default left and right brackets are left square bracket([) and right square bracket(]).
      *
@@ -170,16 +190,7 @@ public final class JsonCompactor {
      * @return this JsonCompactor
      */
     public JsonCompactor withLeftAndRightBrackets(char leftBracket, char rightBracket) {
-        isTrue(leftBracket != rightBracket, "Both brackets cannot be the same");
-        String leftBracketStr = String.valueOf(leftBracket);
-        String rightBracketStr = String.valueOf(rightBracket);
-        isTrue(!leftBracketStr.matches(illegalBracketsRegex()),
-            "Left bracket contains illegal character(%s)", leftBracketStr);
-        isTrue(!rightBracketStr.matches(illegalBracketsRegex()),
-            "Right bracket contains illegal character(%s)", rightBracketStr);
-        this.leftBracket = leftBracket;
-        this.rightBracket = rightBracket;
-
+        this.config = config.withLeftAndRightBrackets(leftBracket, rightBracket);
         return this;
     }
 
@@ -190,7 +201,7 @@ public final class JsonCompactor {
      * @return this JsonCompactor
      */
     public JsonCompactor withPrintMode(PrintMode printMode) {
-        this.printMode = notNull(printMode);
+        this.config = config.withPrintMode(printMode);
         return this;
     }
 
@@ -201,12 +212,12 @@ public final class JsonCompactor {
      * @return this JsonCompactor
      */
     public JsonCompactor withKeyTransformer(KeyTransformer keyTrans) {
-        this.keyTransformer = notNull(keyTrans);
+        this.config = config.withKeyTransformer(keyTrans);
         return this;
     }
 
     private String writeByConfig(JsonNode jsonValue) {
-        if (printMode == PrintMode.PRETTY) {
+        if (config.getPrintMode() == PrintMode.PRETTY) {
             return Json.from(jsonValue).asPrettyString();
         }
 
@@ -239,31 +250,31 @@ public final class JsonCompactor {
             String objKey = null;
             Integer aryIdx = null;
 
-            Matcher matcher = keyPartPattern().matcher(key);
-            while (matcher.find()) {
-                String keyPart = matcher.group();
+            KeyPath keyPath = config.getTokenizer().tokenize(key);
+            for (int i = 0; i < keyPath.size(); i++) {
+                boolean isJsonArray = keyPath.isIndex(i);
 
                 if (objKey != null ^ aryIdx != null) {
-                    if (isJsonArray(keyPart)) {
+                    if (isJsonArray) {
                         currentVal =
                             findOrCreateJsonArray(currentVal, objKey, aryIdx);
                         objKey = null;
-                        aryIdx = extractIndex(keyPart);
+                        aryIdx = keyPath.index(i);
                     } else { // JSON object
                         if (flattened.get(key).isArray()) { // KEEP_ARRAYS mode
                             flattened.set(key, compactArray((ArrayNode) flattened.get(key)));
                         }
                         currentVal = findOrCreateJsonObject(currentVal, objKey, aryIdx);
-                        objKey = extractKey(keyPart);
+                        objKey = keyPath.key(i);
                         aryIdx = null;
                     }
                 }
                 if (objKey == null && aryIdx == null) {
-                    if (isJsonArray(keyPart)) {
-                        aryIdx = extractIndex(keyPart);
+                    if (isJsonArray) {
+                        aryIdx = keyPath.index(i);
                         if (currentVal == null) currentVal = Json.createArrayNode();
                     } else { // JSON object
-                        objKey = extractKey(keyPart);
+                        objKey = keyPath.key(i);
                         if (currentVal == null) currentVal = Json.createObjectNode();
                     }
                 }
@@ -285,7 +296,7 @@ public final class JsonCompactor {
      * @return a Java Map of nested objects
      */
     public Map<String, Object> compactAsMap() {
-        JsonNode flattenedValue = Json.from(compact()).asJsonNode();
+        JsonNode flattenedValue = Json.from(compact()).asJsonNodeUnsafe();
         if (flattenedValue.isArray() || !flattenedValue.isObject()) {
             ObjectNode jsonObj = Json.createObjectNode();
             jsonObj.set(ROOT, flattenedValue);
@@ -304,7 +315,7 @@ public final class JsonCompactor {
                 compactedArray.add(compactArray((ArrayNode) value));
             } else if (value.isObject()) {
                 JsonNode obj;
-                obj = Json.from(createJsonCompactor(value).compact()).asJsonNode();
+                obj = Json.from(new JsonCompactor(value, config).compact()).asJsonNodeUnsafe();
                 compactedArray.add(obj);
             } else {
                 compactedArray.add(value);
@@ -314,29 +325,6 @@ public final class JsonCompactor {
         return compactedArray;
     }
 
-    private String extractKey(String keyPart) {
-        if (keyPart.matches(objectComplexKey())) {
-            keyPart = keyPart.replaceAll("^" + Pattern.quote(leftBracket.toString()) + "\\s*\"", "");
-            keyPart = keyPart.replaceAll("\"\\s*" + Pattern.quote(rightBracket.toString()) + "$", "");
-        }
-
-        return keyTransformer != null ? keyTransformer.transform(keyPart) : keyPart;
-    }
-
-    private Integer extractIndex(String keyPart) {
-        if (flattenMode.equals(MONGO)) {
-            return Integer.valueOf(keyPart);
-        } else {
-            return Integer.valueOf(
-                keyPart.replaceAll("[" + Pattern.quote(leftBracket.toString()) + Pattern.quote(rightBracket.toString()) + "\\s]", "")
-            );
-        }
-    }
-
-    private boolean isJsonArray(String keyPart) {
-        return keyPart.matches(arrayIndex()) || (flattenMode.equals(MONGO) && keyPart.matches("\\d+"));
-    }
-
     private ArrayNode findOrCreateJsonArray(JsonNode currentVal, String objKey, Integer aryIdx) {
         if (objKey != null) {
             ObjectNode jsonObj = (ObjectNode) currentVal;
@@ -398,7 +386,7 @@ public final class JsonCompactor {
             if (val.isArray()) {
                 ArrayNode jsonArray = Json.underMapper().createArrayNode();
                 for (JsonNode arrayVal : val) {
-                    jsonArray.add(Json.from(createJsonCompactor(arrayVal).compact()).asJsonNode());
+                    jsonArray.add(Json.from(new JsonCompactor(arrayVal, config).compact()).asJsonNodeUnsafe());
                 }
                 ((ObjectNode) currentVal).set(objKey, jsonArray);
             } else {
@@ -1,18 +1,19 @@
 package com.infilos.relax;
 
-import static com.infilos.relax.flat.FlattenMode.MONGO;
 import static java.util.Collections.EMPTY_MAP;
-import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.RecursiveAction;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.infilos.relax.flat.*;
-import org.apache.commons.lang3.StringUtils;
+import com.infilos.relax.json.JsonException;
 
 /**
  * Flattens any JSON nested objects or arrays into a flattened JSON string or a Map{@literal <Stirng, Object>}.
@@ -78,38 +79,84 @@ public final class JsonFlattener {
         return new JsonFlattener(json).flattenAsMap();
     }
 
+    /**
+     * Returns a flattened JSON string by given configuration.
+     *
+     * @param json   the JSON string
+     * @param config a {@link FlattenerConfig}
+     * @return a flattened JSON string
+     */
+    public static String flatten(String json, FlattenerConfig config) {
+        return new JsonFlattener(json, config).flatten();
+    }
+
+    /**
+     * Returns a flattened JSON as Map by given configuration.
+     *
+     * @param jsonVal a JSON data which wraps by JsonNode
+     * @param config  a {@link FlattenerConfig}
+     * @return a flattened JSON as Map
+     */
+    public static Map<String, Object> flattenAsMap(JsonNode jsonVal, FlattenerConfig config) {
+        return new JsonFlattener(jsonVal, config).flattenAsMap();
+    }
+
+    /**
+     * Returns a flattened JSON as Map by given configuration.
+     *
+     * @param json   the JSON string
+     * @param config a {@link FlattenerConfig}
+     * @return a flattened JSON as Map
+     */
+    public static Map<String, Object> flattenAsMap(String json, FlattenerConfig config) {
+        return new JsonFlattener(json, config).flattenAsMap();
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     private final JsonNode source;
-    private final Deque<IndexedIterator<?>> elementItors = new ArrayDeque<>();
 
+    private FlattenerConfig config;
+    private Scratch scratch;
     private JsonifyLinkedHashMap<String, Object> flattenedMap;
 
-    private FlattenMode flattenMode = FlattenMode.NORMAL;
-    private TranslatorFactory policy = StringEscapePolicy.DEFAULT;
-    private Character separator = '.';
-    private Character leftBracket = '[';
-    private Character rightBracket = ']';
-    private PrintMode printMode = PrintMode.MINIMAL;
-    private KeyTransformer keyTrans = null;
-    private boolean ignoreReservedCharacters = false;
-
-    private JsonFlattener newJsonFlattener(JsonNode jsonVal) {
-        JsonFlattener jf = new JsonFlattener(jsonVal);
-        jf.withFlattenMode(flattenMode);
-        jf.withStringEscapePolicy(policy);
-        jf.withSeparator(separator);
-        jf.withLeftAndRightBrackets(leftBracket, rightBracket);
-        jf.withPrintMode(printMode);
-        if (keyTrans != null) jf.withKeyTransformer(keyTrans);
-        if (ignoreReservedCharacters) jf.ignoreReservedCharacters();
-        return jf;
+    public JsonFlattener(JsonNode json) {
+        this(json, FlattenerConfig.DEFAULT);
     }
 
-    public JsonFlattener(JsonNode json) {
+    public JsonFlattener(String json) {
+        this(json, FlattenerConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a JSON flattener with a shared configuration, the configuration can still be changed by the fluent setters of this flattener.
+     *
+     * @param json   a JSON data which wraps by JsonNode
+     * @param config a {@link FlattenerConfig}
+     */
+    public JsonFlattener(JsonNode json, FlattenerConfig config) {
         this.source = notNull(json);
+        this.config = notNull(config);
     }
 
-    public JsonFlattener(String json) {
-        this.source = Json.from(json).asJsonNode();
+    /**
+     * Creates a JSON flattener with a shared configuration, the configuration can still be changed by the fluent setters of this flattener.
+     *
+     * @param json   the JSON string
+     * @param config a {@link FlattenerConfig}
+     */
+    public JsonFlattener(String json, FlattenerConfig config) {
+        this.source = Json.from(json).asJsonNodeUnsafe();
+        this.config = notNull(config);
+    }
+
+    /**
+     * Returns the current configuration of this {@link JsonFlattener}.
+     *
+     * @return a {@link FlattenerConfig}
+     */
+    public FlattenerConfig getConfig() {
+        return config;
     }
 
     /**
@@ -119,9 +166,8 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withFlattenMode(FlattenMode flattenMode) {
-        this.flattenMode = notNull(flattenMode);
+        this.config = config.withFlattenMode(flattenMode);
         this.flattenedMap = null;
-
         return this;
     }
 
@@ -132,9 +178,8 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withStringEscapePolicy(TranslatorFactory policy) {
-        this.policy = notNull(policy);
+        this.config = config.withStringEscapePolicy(policy);
         this.flattenedMap = null;
-
         return this;
     }
 
@@ -145,20 +190,11 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withSeparator(char separator) {
-        String separatorStr = String.valueOf(separator);
-        isTrue(!separatorStr.matches("[\"\\s]"), "Separator contains illegal character(%s)", separatorStr);
-        isTrue(!leftBracket.equals(separator) && !rightBracket.equals(separator), "Separator(%s) is already used in brackets", separatorStr);
-
-        this.separator = separator;
+        this.config = config.withSeparator(separator);
         this.flattenedMap = null;
-
         return this;
     }
 
-    private String illegalBracketsRegex() {
-        return "[\"\\s" + Pattern.quote(this.separator.toString()) + "]";
-    }
-
     /**
      * A fluent setter to setup the left and right brackets within a key in the flattened JSON. The default left and right brackets are left square bracket([) and right square bracket(]).
      *
@@ -167,17 +203,8 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withLeftAndRightBrackets(char leftBracket, char rightBracket) {
-        isTrue(leftBracket != rightBracket, "Both brackets cannot be the same");
-
-        String leftBracketStr = String.valueOf(leftBracket);
-        String rightBracketStr = String.valueOf(rightBracket);
-        isTrue(!leftBracketStr.matches(illegalBracketsRegex()), "Left bracket contains illegal character(%s)", leftBracketStr);
-        isTrue(!rightBracketStr.matches(illegalBracketsRegex()), "Right bracket contains illegal character(%s)", rightBracketStr);
-
-        this.leftBracket = leftBracket;
-        this.rightBracket = rightBracket;
+        this.config = config.withLeftAndRightBrackets(leftBracket, rightBracket);
         this.flattenedMap = null;
-
         return this;
     }
 
@@ -188,7 +215,7 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withPrintMode(PrintMode printMode) {
-        this.printMode = notNull(printMode);
+        this.config = config.withPrintMode(printMode);
         return this;
     }
 
@@ -199,7 +226,7 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener withKeyTransformer(KeyTransformer keyTrans) {
-        this.keyTrans = notNull(keyTrans);
+        this.config = config.withKeyTransformer(keyTrans);
         this.flattenedMap = null;
         return this;
     }
@@ -216,7 +243,33 @@ public final class JsonFlattener {
      * @return this {@link JsonFlattener}
      */
     public JsonFlattener ignoreReservedCharacters() {
-        ignoreReservedCharacters = true;
+        this.config = config.ignoreReservedCharacters();
+        this.flattenedMap = null;
+        return this;
+    }
+
+    /**
+     * A fluent setter to flatten large root arrays or objects in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param splitThreshold the most root elements or members flattened by one task
+     * @return this {@link JsonFlattener}
+     * @see FlattenerConfig#withParallelism(ForkJoinPool, int)
+     */
+    public JsonFlattener withParallelism(int splitThreshold) {
+        this.config = config.withParallelism(splitThreshold);
+        return this;
+    }
+
+    /**
+     * A fluent setter to flatten large root arrays or objects in parallel on given {@link ForkJoinPool}.
+     *
+     * @param forkJoinPool   the pool running the tasks
+     * @param splitThreshold the most root elements or members flattened by one task
+     * @return this {@link JsonFlattener}
+     * @see FlattenerConfig#withParallelism(ForkJoinPool, int)
+     */
+    public JsonFlattener withParallelism(ForkJoinPool forkJoinPool, int splitThreshold) {
+        this.config = config.withParallelism(forkJoinPool, splitThreshold);
         return this;
     }
 
@@ -226,12 +279,31 @@ public final class JsonFlattener {
      * @return a flattened JSON string
      */
     public String flatten() {
+        StringBuilder sb = new StringBuilder();
+        flattenTo(sb);
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes the flattened JSON to given output without building the whole JSON string first.
+     *
+     * @param out any Appendable, like a Writer of a file or socket, which is not flushed or closed
+     */
+    public void flattenTo(Appendable out) {
+        notNull(out);
         flattenAsMap();
 
         if (source.isObject() || isObjectifiableArray()) {
-            return flattenedMap.toString(printMode);
+            flattenedMap.writeTo(out, config.getPrintMode());
+        } else if (flattenedMap.get(ROOT) instanceof JsonifyArrayList) {
+            ((JsonifyArrayList<?>) flattenedMap.get(ROOT)).writeTo(out, config.getPrintMode());
         } else {
-            return javaObj2Json(flattenedMap.get(ROOT));
+            try {
+                out.append(javaObj2Json(flattenedMap.get(ROOT)));
+            } catch (IOException ex) {
+                throw JsonException.ofAction("FlattenJson", ex);
+            }
         }
     }
 
@@ -243,9 +315,7 @@ public final class JsonFlattener {
         if (obj == null) {
             return "null";
         } else if (obj instanceof CharSequence) {
-            return '"' + policy.getTranslator().translate((CharSequence) obj) + '"';
-        } else if (obj instanceof JsonifyArrayList) {
-            return ((JsonifyArrayList<?>) obj).toString(printMode);
+            return '"' + JsonStringEscaper.translateToString(config.getTranslator(), (CharSequence) obj) + '"';
         } else {
             return obj.toString();
         }
@@ -256,65 +326,188 @@ public final class JsonFlattener {
      *
      * @return a flattened JSON as Map
      */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> flattenAsMap() {
         if (flattenedMap != null) {
             return flattenedMap;
         }
 
-        flattenedMap = createJsonifyLinkedHashMap();
-        reduce(source);
+        if (isSplittable()) {
+            flattenedMap = config.createJsonifyLinkedHashMap();
+            flattenInParallel();
+            return flattenedMap;
+        }
+
+        scratch = Scratch.acquire();
+        try {
+            flattenedMap = config.createJsonifyLinkedHashMap();
+            reduce(source);
+            drain();
+        } finally {
+            scratch.release();
+            scratch = null;
+        }
+
+        return flattenedMap;
+    }
+
+    private boolean isSplittable() {
+        if (!config.isParallel() || source.size() <= config.getSplitThreshold()) {
+            return false;
+        }
+        if (source.isObject()) {
+            return true;
+        }
+        switch (config.getFlattenMode()) {
+            case KEEP_ARRAYS:
+                return false;
+            case KEEP_PRIMITIVE_ARRAYS:
+                return !isAllPrimitive(source);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Splits the root elements or members into ranges of the split threshold, flattens each range into its own map on the pool,
+     * and then merges the maps in the order of the ranges, so the keys keep the order and overrides of a sequential flattening.
+     */
+    private void flattenInParallel() {
+        List<Object> elements = new ArrayList<>(source.size());
+        if (source.isObject()) {
+            source.fields().forEachRemaining(elements::add);
+        } else {
+            source.forEach(elements::add);
+        }
+
+        int threshold = config.getSplitThreshold();
+        List<Map<String, Object>> ranges = new ArrayList<>(Collections.nCopies((elements.size() + threshold - 1) / threshold, null));
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            config.getForkJoinPool().invoke(new FlattenRangesTask(elements, ranges, 0, ranges.size(), failure));
+        } catch (RuntimeException ex) {
+            // a failure of another worker is rethrown as a copy wrapping the original, throw what the range threw instead
+            RuntimeException thrown = failure.get();
+            throw (thrown != null) ? thrown : ex;
+        }
+
+        for (Map<String, Object> range : ranges) {
+            flattenedMap.putAll(range);
+        }
+    }
+
+    private Map<String, Object> flattenRange(List<Object> elements, int from, int to) {
+        scratch = Scratch.acquire();
+        try {
+            flattenedMap = config.createJsonifyLinkedHashMap();
+            push(new IndexedIterator<>(elements.subList(from, to).iterator(), from));
+            drain();
+        } finally {
+            scratch.release();
+            scratch = null;
+        }
+
+        return flattenedMap;
+    }
+
+    private final class FlattenRangesTask extends RecursiveAction {
+        private final List<Object> elements;
+        private final List<Map<String, Object>> ranges;
+        private final int fromRange;
+        private final int toRange;
+        private final AtomicReference<RuntimeException> failure;
+
+        private FlattenRangesTask(List<Object> elements,
+                                  List<Map<String, Object>> ranges,
+                                  int fromRange,
+                                  int toRange,
+                                  AtomicReference<RuntimeException> failure) {
+            this.elements = elements;
+            this.ranges = ranges;
+            this.fromRange = fromRange;
+            this.toRange = toRange;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRange - fromRange > 1) {
+                int middle = (fromRange + toRange) >>> 1;
+                invokeAll(
+                    new FlattenRangesTask(elements, ranges, fromRange, middle, failure),
+                    new FlattenRangesTask(elements, ranges, middle, toRange, failure)
+                );
+                return;
+            }
+
+            int threshold = config.getSplitThreshold();
+            int from = fromRange * threshold;
+            int to = Math.min(from + threshold, elements.size());
+            try {
+                ranges.set(fromRange, new JsonFlattener(source, config).flattenRange(elements, from, to));
+            } catch (RuntimeException ex) {
+                failure.compareAndSet(null, ex);
+                throw ex;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        Deque<IndexedIterator<?>> elementItors = scratch.elementItors;
+        StringBuilder keyBuilder = scratch.keyBuilder;
 
         while (!elementItors.isEmpty()) {
             IndexedIterator<?> deepestIter = elementItors.getLast();
             if (!deepestIter.hasNext()) {
                 elementItors.removeLast();
-            } else if (deepestIter.peek() instanceof Entry) {
+                continue;
+            }
+
+            // replace the segment of the deepest level, the prefix of enclosing levels is kept
+            keyBuilder.setLength(scratch.segmentStart(elementItors.size() - 1));
+            if (deepestIter.peek() instanceof Entry) {
                 Entry<String, ? extends JsonNode> mem = (Entry<String, ? extends JsonNode>) deepestIter.next();
+                config.appendKey(keyBuilder, mem.getKey());
                 reduce(mem.getValue());
             } else { // JsonValue
                 JsonNode val = (JsonNode) deepestIter.next();
+                config.appendIndex(keyBuilder, deepestIter.getIndex());
                 reduce(val);
             }
         }
+    }
 
-        return flattenedMap;
+    private void push(IndexedIterator<?> itor) {
+        scratch.elementItors.add(itor);
+        scratch.markSegmentStart(scratch.elementItors.size() - 1, scratch.keyBuilder.length());
     }
 
     private void reduce(JsonNode val) {
         if (val.isObject() && val.iterator().hasNext()) {
             ObjectNode objectNode = (ObjectNode) val;
-            elementItors.add(new IndexedIterator<>(objectNode.fields()));
+            push(new IndexedIterator<>(objectNode.fields()));
         } else if (val.isArray() && val.iterator().hasNext()) {
-            switch (flattenMode) {
+            switch (config.getFlattenMode()) {
                 case KEEP_PRIMITIVE_ARRAYS:
-                    boolean allPrimitive = true;
-                    for (JsonNode value : val) {
-                        if (value.isArray() || value.isObject()) {
-                            allPrimitive = false;
-                            break;
-                        }
-                    }
-
-                    if (allPrimitive) {
-                        JsonifyArrayList<Object> array = createJsonifyArrayList();
+                    if (isAllPrimitive(val)) {
+                        JsonifyArrayList<Object> array = config.createJsonifyArrayList();
                         for (JsonNode value : val) {
                             array.add(jsonVal2Obj(value));
                         }
                         flattenedMap.put(computeKey(), array);
                     } else {
-                        elementItors.add(IndexedIterator.from(val));
+                        push(IndexedIterator.from(val));
                     }
                     break;
                 case KEEP_ARRAYS:
-                    JsonifyArrayList<Object> array = createJsonifyArrayList();
+                    JsonifyArrayList<Object> array = config.createJsonifyArrayList();
                     for (JsonNode value : val) {
                         array.add(jsonVal2Obj(value));
                     }
                     flattenedMap.put(computeKey(), array);
                     break;
                 default:
-                    elementItors.add(IndexedIterator.from(val));
+                    push(IndexedIterator.from(val));
             }
         } else {
             String key = computeKey();
@@ -326,6 +519,15 @@ public final class JsonFlattener {
         }
     }
 
+    private static boolean isAllPrimitive(JsonNode array) {
+        for (JsonNode value : array) {
+            if (value.isArray() || value.isObject()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Object jsonVal2Obj(JsonNode val) {
         if (val.isBoolean()) {
             return val.booleanValue();
@@ -336,87 +538,86 @@ public final class JsonFlattener {
         if (val.isNumber()) {
             return val.numberValue();
         }
-        if (flattenMode == FlattenMode.KEEP_ARRAYS) {
+        if (config.getFlattenMode() == FlattenMode.KEEP_ARRAYS) {
             if (val.isArray()) {
-                JsonifyArrayList<Object> array = createJsonifyArrayList();
+                JsonifyArrayList<Object> array = config.createJsonifyArrayList();
                 for (JsonNode value : val) {
                     array.add(jsonVal2Obj(value));
                 }
                 return array;
             } else if (val.isObject()) {
                 if (val.iterator().hasNext()) {
-                    return newJsonFlattener(val).flattenAsMap();
+                    return new JsonFlattener(val, config).flattenAsMap();
                 } else {
-                    return createJsonifyLinkedHashMap();
+                    return config.createJsonifyLinkedHashMap();
                 }
             }
         } else {
             if (val.isArray()) {
-                return createJsonifyArrayList();
+                return config.createJsonifyArrayList();
             } else if (val.isObject()) {
-                return createJsonifyLinkedHashMap();
+                return config.createJsonifyLinkedHashMap();
             }
         }
 
         return null;
     }
 
-    private boolean hasReservedCharacters(String key) {
-        if (flattenMode.equals(MONGO) && StringUtils.containsAny(key, separator))
-            throw new IllegalArgumentException("Key cannot contain separator("
-                + separator + ") in FlattenMode." + MONGO);
-
-        return StringUtils.containsAny(key, separator, leftBracket, rightBracket);
-    }
-
-    @SuppressWarnings("unchecked")
     private String computeKey() {
-        if (elementItors.isEmpty()) {
+        if (scratch.elementItors.isEmpty()) {
             return ROOT;
         }
 
-        StringBuilder sb = new StringBuilder();
+        return scratch.keyBuilder.toString();
+    }
 
-        for (IndexedIterator<?> itor : elementItors) {
-            if (itor.getCurrent() instanceof Entry) {
-                String key = ((Entry<String, ? extends JsonNode>) itor.getCurrent()).getKey();
+    /**
+     * Per-thread scratch state of flattening, reused by every document flattened on the thread.
+     * Flattening nested objects in {@link FlattenMode#KEEP_ARRAYS} takes the next scratch of the chain.
+     * <br>
+     * The key builder always holds the flattened key of the current element of the deepest level,
+     * and each level remembers where its own segment starts, so moving to the next element only rewrites that segment.
+     */
+    private static final class Scratch {
+        private static final int MAX_RETAINED_KEY_CAPACITY = 1 << 12;
 
-                if (keyTrans != null) {
-                    key = keyTrans.transform(key);
-                }
-                if (!ignoreReservedCharacters && hasReservedCharacters(key)) {
-                    sb.append(leftBracket);
-                    sb.append('"');
-                    sb.append(policy.getTranslator().translate(key));
-                    sb.append('"');
-                    sb.append(rightBracket);
-                } else {
-                    if (sb.length() != 0) {
-                        sb.append(separator);
-                    }
-                    sb.append(key);
-                }
-            } else { // JsonValue
-                sb.append(flattenMode.equals(MONGO) ? separator : leftBracket);
-                sb.append(itor.getIndex());
-                sb.append(flattenMode.equals(MONGO) ? "" : rightBracket);
-            }
-        }
+        private final Deque<IndexedIterator<?>> elementItors = new ArrayDeque<>();
+        private StringBuilder keyBuilder = new StringBuilder(64);
+        private int[] segmentStarts = new int[16];
+        private boolean inUse = false;
+        private Scratch nested;
 
-        return sb.toString();
-    }
+        private int segmentStart(int level) {
+            return segmentStarts[level];
+        }
 
-    private <T> JsonifyArrayList<T> createJsonifyArrayList() {
-        JsonifyArrayList<T> array = new JsonifyArrayList<>();
-        array.setTranslator(policy.getTranslator());
-        return array;
-    }
+        private void markSegmentStart(int level, int start) {
+            if (level == segmentStarts.length) {
+                segmentStarts = Arrays.copyOf(segmentStarts, level * 2);
+            }
+            segmentStarts[level] = start;
+        }
 
-    private <K, V> JsonifyLinkedHashMap<K, V> createJsonifyLinkedHashMap() {
-        JsonifyLinkedHashMap<K, V> map = new JsonifyLinkedHashMap<>();
-        map.setTranslator(policy.getTranslator());
+        private static Scratch acquire() {
+            Scratch scratch = SCRATCH.get();
+            while (scratch.inUse) {
+                if (scratch.nested == null) {
+                    scratch.nested = new Scratch();
+                }
+                scratch = scratch.nested;
+            }
+            scratch.inUse = true;
+            return scratch;
+        }
 
-        return map;
+        private void release() {
+            elementItors.clear();
+            keyBuilder.setLength(0);
+            if (keyBuilder.capacity() > MAX_RETAINED_KEY_CAPACITY) {
+                keyBuilder = new StringBuilder(64);
+            }
+            inUse = false;
+        }
     }
 
     @Override
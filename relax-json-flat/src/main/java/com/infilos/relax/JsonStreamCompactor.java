@@ -0,0 +1,650 @@
+package com.infilos.relax;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.*;
+import java.util.*;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.infilos.relax.flat.*;
+import com.infilos.relax.json.JsonException;
+
+/**
+ * Compacts flattened entries back to nested JSON, writing straight to a Jackson {@link JsonGenerator} instead of building a {@link JsonNode} tree.
+ * <br>
+ * Entries may come from a Map, an Iterator or a {@link JsonParser} over a flattened JSON object. When keys arrive in the order produced by {@link JsonFlattener} or {@link JsonStreamFlattener}, every container is written as soon as its first key arrives and closed once the keys move on, so nothing but the currently open path is held in memory.
+ * <br>
+ * Array elements arriving ahead of their index are buffered until the missing elements arrive or the array closes. For a Map, keys of a container that are not contiguous are grouped before writing, at the cost of buffering the keys of the map; for an Iterator or a parser, a key which revisits an already closed container is rejected with a {@link JsonException}.
+ */
+public final class JsonStreamCompactor {
+
+    /**
+     * Writes a JSON string of nested objects by the given flattened Map.
+     *
+     * @param flattenedMap a flattened Map
+     * @param out          the writer of nested JSON, which is not closed
+     */
+    public static void compact(Map<String, ?> flattenedMap, Writer out) {
+        new JsonStreamCompactor().compactTo(flattenedMap, out);
+    }
+
+    /**
+     * Writes a JSON string of nested objects by the flattened JSON read from given reader.
+     *
+     * @param flattened a flattened JSON reader, which is not closed
+     * @param out       the writer of nested JSON, which is not closed
+     */
+    public static void compact(Reader flattened, Writer out) {
+        new JsonStreamCompactor().compactTo(flattened, out);
+    }
+
+    /**
+     * Writes a JSON string of nested objects by the flattened JSON read from given stream.
+     *
+     * @param flattened a flattened JSON input stream, which is not closed
+     * @param out       the output stream of nested JSON, which is not closed
+     */
+    public static void compact(InputStream flattened, OutputStream out) {
+        new JsonStreamCompactor().compactTo(flattened, out);
+    }
+
+    private CompactorConfig config;
+
+    public JsonStreamCompactor() {
+        this(CompactorConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a stream compactor with a shared configuration, the configuration can still be changed by the fluent setters of this compactor.
+     *
+     * @param config a CompactorConfig
+     */
+    public JsonStreamCompactor(CompactorConfig config) {
+        this.config = notNull(config);
+    }
+
+    /**
+     * Returns the current configuration of this JsonStreamCompactor.
+     *
+     * @return a CompactorConfig
+     */
+    public CompactorConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * A fluent setter to setup a mode of the JsonStreamCompactor.
+     *
+     * @param flattenMode a FlattenMode
+     * @return this JsonStreamCompactor
+     */
+    public JsonStreamCompactor withFlattenMode(FlattenMode flattenMode) {
+        this.config = config.withFlattenMode(flattenMode);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup the separator within a key in the flattened JSON. The default separator is a dot(.).
+     *
+     * @param separator any character
+     * @return this JsonStreamCompactor
+     */
+    public JsonStreamCompactor withSeparator(char separator) {
+        this.config = config.withSeparator(separator);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup the left and right brackets within a key in the flattened JSON. The default left and right brackets are left square bracket([) and right square bracket(]).
+     *
+     * @param leftBracket  any character
+     * @param rightBracket any character
+     * @return this JsonStreamCompactor
+     */
+    public JsonStreamCompactor withLeftAndRightBrackets(char leftBracket, char rightBracket) {
+        this.config = config.withLeftAndRightBrackets(leftBracket, rightBracket);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup a print mode of the JsonStreamCompactor, which applies to the generators created by this compactor. The default print mode is minimal.
+     *
+     * @param printMode a PrintMode
+     * @return this JsonStreamCompactor
+     */
+    public JsonStreamCompactor withPrintMode(PrintMode printMode) {
+        this.config = config.withPrintMode(printMode);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup a KeyTransformer of the JsonStreamCompactor.
+     *
+     * @param keyTrans a KeyTransformer
+     * @return this JsonStreamCompactor
+     */
+    public JsonStreamCompactor withKeyTransformer(KeyTransformer keyTrans) {
+        this.config = config.withKeyTransformer(keyTrans);
+        return this;
+    }
+
+    /**
+     * Writes nested JSON of the given flattened Map to the writer.
+     *
+     * @param flattenedMap a flattened Map
+     * @param out          the writer of nested JSON, which is not closed
+     */
+    public void compactTo(Map<String, ?> flattenedMap, Writer out) {
+        try (JsonGenerator generator = createGenerator(out)) {
+            compactTo(flattenedMap, generator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the given flattened Map to the generator.
+     *
+     * @param flattenedMap a flattened Map
+     * @param generator    a Jackson generator, which is flushed but not closed
+     */
+    public void compactTo(Map<String, ?> flattenedMap, JsonGenerator generator) {
+        notNull(flattenedMap);
+        try {
+            compactMap(flattenedMap, generator);
+            generator.flush();
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the given flattened entries to the writer.
+     *
+     * @param entries flattened entries, grouped by container as {@link JsonFlattener} produces them
+     * @param out     the writer of nested JSON, which is not closed
+     */
+    public void compactTo(Iterator<? extends Entry<String, ?>> entries, Writer out) {
+        try (JsonGenerator generator = createGenerator(out)) {
+            compactTo(entries, generator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the given flattened entries to the generator.
+     *
+     * @param entries   flattened entries, grouped by container as {@link JsonFlattener} produces them
+     * @param generator a Jackson generator, which is flushed but not closed
+     */
+    public void compactTo(Iterator<? extends Entry<String, ?>> entries, JsonGenerator generator) {
+        notNull(entries);
+        try {
+            Compaction compaction = new Compaction(generator);
+            while (entries.hasNext()) {
+                Entry<String, ?> entry = entries.next();
+                compaction.accept(entry.getKey(), entry.getValue());
+            }
+            compaction.finish();
+            generator.flush();
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the flattened JSON read from given reader to the writer.
+     *
+     * @param flattened a flattened JSON reader, which is not closed
+     * @param out       the writer of nested JSON, which is not closed
+     */
+    public void compactTo(Reader flattened, Writer out) {
+        try (JsonParser parser = Json.underMapper().createParser(notNull(flattened));
+             JsonGenerator generator = createGenerator(out)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            compactTo(parser, generator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the flattened JSON read from given stream to the output stream.
+     *
+     * @param flattened a flattened JSON input stream, which is not closed
+     * @param out       the output stream of nested JSON, which is not closed
+     */
+    public void compactTo(InputStream flattened, OutputStream out) {
+        try (JsonParser parser = Json.underMapper().createParser(notNull(flattened));
+             JsonGenerator generator = createGenerator(out)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            compactTo(parser, generator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    /**
+     * Writes nested JSON of the next flattened JSON value of given parser to the generator.
+     *
+     * @param parser    a Jackson parser over a flattened JSON, which is not closed
+     * @param generator a Jackson generator, which is flushed but not closed
+     */
+    public void compactTo(JsonParser parser, JsonGenerator generator) {
+        notNull(parser);
+        try {
+            JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+            if (token == null) {
+                throw JsonException.of("CompactJsonStream, empty input");
+            }
+            compactValue(parser, token, generator);
+            generator.flush();
+        } catch (IOException ex) {
+            throw JsonException.ofAction("CompactJsonStream", ex);
+        }
+    }
+
+    private JsonGenerator createGenerator(Writer out) throws IOException {
+        return configure(Json.underMapper().createGenerator(notNull(out)));
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return configure(Json.underMapper().createGenerator(notNull(out)));
+    }
+
+    private JsonGenerator configure(JsonGenerator generator) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (config.getPrintMode() == PrintMode.PRETTY) {
+            generator.useDefaultPrettyPrinter();
+        }
+        return generator;
+    }
+
+    private void compactMap(Map<String, ?> flattenedMap, JsonGenerator generator) throws IOException {
+        List<Object[]> paths = new ArrayList<>(flattenedMap.size());
+        Compaction dryRun = new Compaction(null);
+        boolean grouped = true;
+        for (Entry<String, ?> entry : flattenedMap.entrySet()) {
+            KeyPath path = keyPath(entry.getKey());
+            paths.add(new Object[]{path, entry.getValue()});
+            if (grouped) {
+                try {
+                    dryRun.accept(path, null);
+                } catch (OutOfOrderException ex) {
+                    grouped = false;
+                }
+            }
+        }
+
+        if (grouped) {
+            Compaction compaction = new Compaction(generator);
+            for (Object[] path : paths) {
+                compaction.accept((KeyPath) path[0], path[1]);
+            }
+            compaction.finish();
+        } else {
+            Buffer root = new Buffer();
+            for (Object[] path : paths) {
+                root.put((KeyPath) path[0], 0, path[1]);
+            }
+            writeBuffer(root, generator);
+        }
+    }
+
+    private void compactValue(JsonParser parser, JsonToken token, JsonGenerator generator) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            generator.writeStartArray();
+            for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                if (element == null) {
+                    throw JsonException.of("CompactJsonStream, unexpected end of input");
+                }
+                compactValue(parser, element, generator);
+            }
+            generator.writeEndArray();
+        } else if (token == JsonToken.START_OBJECT) {
+            Compaction compaction = new Compaction(generator);
+            for (JsonToken field = parser.nextToken(); field != JsonToken.END_OBJECT; field = parser.nextToken()) {
+                if (field == null) {
+                    throw JsonException.of("CompactJsonStream, unexpected end of input");
+                }
+                String key = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_ARRAY || value == JsonToken.START_OBJECT) {
+                    compaction.accept(key, Json.underMapper().readTree(parser));
+                } else {
+                    compaction.accept(key, scalarValue(parser, value));
+                }
+            }
+            compaction.finish();
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+
+    private static Object scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+
+    private KeyPath keyPath(String key) {
+        KeyPath path = config.getTokenizer().tokenize(key);
+        if (path.size() == 0) {
+            throw JsonException.of("CompactJsonStream, invalid flattened key(" + key + ")");
+        }
+        return path;
+    }
+
+    private void writeValue(Object value, boolean compactObjects, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof JsonNode) {
+            JsonNode node = (JsonNode) value;
+            if (node.isArray()) {
+                generator.writeStartArray();
+                for (JsonNode element : node) {
+                    writeValue(element, true, generator);
+                }
+                generator.writeEndArray();
+            } else if (node.isObject() && compactObjects) {
+                Compaction compaction = new Compaction(generator);
+                Iterator<Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Entry<String, JsonNode> field = fields.next();
+                    compaction.accept(field.getKey(), field.getValue());
+                }
+                compaction.finish();
+            } else {
+                generator.writeTree(node);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (compactObjects) {
+                Compaction compaction = new Compaction(generator);
+                for (Entry<?, ?> member : map.entrySet()) {
+                    compaction.accept(String.valueOf(member.getKey()), member.getValue());
+                }
+                compaction.finish();
+            } else {
+                generator.writeStartObject();
+                for (Entry<?, ?> member : map.entrySet()) {
+                    generator.writeFieldName(String.valueOf(member.getKey()));
+                    writeValue(member.getValue(), false, generator);
+                }
+                generator.writeEndObject();
+            }
+        } else if (value instanceof Collection) {
+            generator.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(element, true, generator);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeObject(value);
+        }
+    }
+
+    private void writeBuffer(Buffer buffer, JsonGenerator generator) throws IOException {
+        if (buffer.elements != null) {
+            generator.writeStartArray();
+            int next = 0;
+            for (Entry<Integer, Buffer> element : buffer.elements.entrySet()) {
+                for (; next < element.getKey(); next++) {
+                    generator.writeNull();
+                }
+                writeBuffer(element.getValue(), generator);
+                next++;
+            }
+            generator.writeEndArray();
+        } else if (buffer.members != null) {
+            generator.writeStartObject();
+            for (Entry<String, Buffer> member : buffer.members.entrySet()) {
+                generator.writeFieldName(member.getKey());
+                writeBuffer(member.getValue(), generator);
+            }
+            generator.writeEndObject();
+        } else if (buffer.leaf) {
+            writeValue(buffer.value, false, generator);
+        } else {
+            generator.writeStartObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class OutOfOrderException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private OutOfOrderException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * A subtree held in memory until it can be written, either a leaf value, an object or an array.
+     */
+    private static final class Buffer {
+        private boolean leaf;
+        private Object value;
+        private LinkedHashMap<String, Buffer> members;
+        private TreeMap<Integer, Buffer> elements;
+
+        private void put(KeyPath path, int from, Object value) {
+            if (from == path.size()) {
+                this.leaf = true;
+                this.value = value;
+                return;
+            }
+
+            Object part = path.part(from);
+            if (part instanceof Integer) {
+                if (members != null) {
+                    throw JsonException.of("CompactJsonStream, index(" + part + ") conflicts with an object");
+                }
+                if (elements == null) {
+                    elements = new TreeMap<>();
+                }
+                elements.computeIfAbsent((Integer) part, k -> new Buffer()).put(path, from + 1, value);
+            } else {
+                if (elements != null) {
+                    throw JsonException.of("CompactJsonStream, key(" + part + ") conflicts with an array");
+                }
+                if (members == null) {
+                    members = new LinkedHashMap<>();
+                }
+                members.computeIfAbsent((String) part, k -> new Buffer()).put(path, from + 1, value);
+            }
+        }
+    }
+
+    /**
+     * One open container of the output, either an object with the members already closed or an array with the next index to write.
+     */
+    private static final class Level {
+        private final boolean array;
+        private final Object part;
+        private Set<String> closed;
+        private int next;
+        private TreeMap<Integer, Buffer> deferred;
+
+        private Level(boolean array, Object part) {
+            this.array = array;
+            this.part = part;
+        }
+    }
+
+    /**
+     * Writes one flattened object to the generator while its entries arrive. A null generator only validates the order of keys.
+     */
+    private final class Compaction {
+        private final JsonGenerator generator;
+        private final List<Level> open = new ArrayList<>();
+        private boolean started;
+
+        private Compaction(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void accept(String key, Object value) throws IOException {
+            accept(keyPath(key), value);
+        }
+
+        private void accept(KeyPath path, Object value) throws IOException {
+            if (!started) {
+                started = true;
+                open.add(startContainer(path.isIndex(0), null));
+            }
+
+            int depth = 0;
+            while (depth + 1 < open.size() && depth < path.size() - 1
+                && open.get(depth + 1).part.equals(path.part(depth))) {
+                depth++;
+            }
+            while (open.size() > depth + 1) {
+                closeDeepest();
+            }
+
+            write(open.get(depth), path, depth, value);
+        }
+
+        private void write(Level level, KeyPath path, int index, Object value) throws IOException {
+            Object part = path.part(index);
+            if (level.array != path.isIndex(index)) {
+                throw JsonException.of("CompactJsonStream, key part(" + part + ") conflicts with "
+                    + (level.array ? "an array" : "an object"));
+            }
+
+            if (level.array) {
+                int aryIdx = (Integer) part;
+                flushDeferred(level, aryIdx);
+                if (level.deferred != null && level.deferred.containsKey(aryIdx)) {
+                    level.deferred.get(aryIdx).put(path, index + 1, value);
+                    return;
+                }
+                if (aryIdx > level.next) {
+                    if (level.deferred == null) {
+                        level.deferred = new TreeMap<>();
+                    }
+                    Buffer buffer = new Buffer();
+                    buffer.put(path, index + 1, value);
+                    level.deferred.put(aryIdx, buffer);
+                    return;
+                }
+                if (aryIdx < level.next) {
+                    throw outOfOrder("CompactJsonStream, index(" + aryIdx + ") arrives after its array element was written");
+                }
+                level.next = aryIdx + 1;
+            } else {
+                String objKey = (String) part;
+                if (level.closed != null && level.closed.contains(objKey)) {
+                    throw outOfOrder("CompactJsonStream, key(" + objKey + ") arrives after its object was written");
+                }
+                if (generator != null) {
+                    generator.writeFieldName(objKey);
+                }
+            }
+
+            if (index == path.size() - 1) {
+                if (generator != null) {
+                    writeValue(value, false, generator);
+                }
+            } else {
+                Level child = startContainer(path.isIndex(index + 1), part);
+                open.add(child);
+                write(child, path, index + 1, value);
+            }
+        }
+
+        private RuntimeException outOfOrder(String message) {
+            return generator == null ? new OutOfOrderException(message) : JsonException.of(message);
+        }
+
+        private Level startContainer(boolean array, Object part) throws IOException {
+            if (generator != null) {
+                if (array) {
+                    generator.writeStartArray();
+                } else {
+                    generator.writeStartObject();
+                }
+            }
+            return new Level(array, part);
+        }
+
+        private void flushDeferred(Level level, int before) throws IOException {
+            while (level.deferred != null && !level.deferred.isEmpty()
+                && level.deferred.firstKey() == level.next && level.next < before) {
+                Buffer buffer = level.deferred.pollFirstEntry().getValue();
+                if (generator != null) {
+                    writeBuffer(buffer, generator);
+                }
+                level.next++;
+            }
+        }
+
+        private void closeDeepest() throws IOException {
+            Level level = open.remove(open.size() - 1);
+            if (level.array) {
+                if (level.deferred != null) {
+                    for (Entry<Integer, Buffer> element : level.deferred.entrySet()) {
+                        for (; level.next < element.getKey(); level.next++) {
+                            if (generator != null) {
+                                generator.writeNull();
+                            }
+                        }
+                        if (generator != null) {
+                            writeBuffer(element.getValue(), generator);
+                        }
+                        level.next++;
+                    }
+                    level.deferred = null;
+                }
+                if (generator != null) {
+                    generator.writeEndArray();
+                }
+            } else if (generator != null) {
+                generator.writeEndObject();
+            }
+
+            if (!open.isEmpty()) {
+                Level parent = open.get(open.size() - 1);
+                if (!parent.array) {
+                    if (parent.closed == null) {
+                        parent.closed = new HashSet<>();
+                    }
+                    parent.closed.add((String) level.part);
+                }
+            }
+        }
+
+        private void finish() throws IOException {
+            if (!started) {
+                started = true;
+                open.add(startContainer(false, null));
+            }
+            while (!open.isEmpty()) {
+                closeDeepest();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JsonStreamCompactor{config=" + config + "}";
+    }
+}
@@ -0,0 +1,528 @@
+package com.infilos.relax;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.infilos.relax.flat.*;
+import com.infilos.relax.json.JsonException;
+
+/**
+ * Flattens a JSON document straight from a Jackson {@link JsonParser} token stream, without materializing the document as a {@link com.fasterxml.jackson.databind.JsonNode}.
+ * <br>
+ * Flattened entries are pushed to a callback or pulled through an {@link Iterator} in the same order and with the same keys and values as {@link JsonFlattener#flattenAsMap()}, so memory stays proportional to the nesting depth of the document instead of its size.
+ * Arrays kept by {@link FlattenMode#KEEP_ARRAYS} or {@link FlattenMode#KEEP_PRIMITIVE_ARRAYS} are still buffered as a whole, since they become a single value.
+ * <br>
+ * <br>
+ * For example:<br>
+ * new JsonStreamFlattener().withSeparator('_').flattenTo(inputStream, (key, value) -{@literal >} sink.write(key, value));
+ */
+public final class JsonStreamFlattener {
+    /**
+     * The key used when the document is a JSON primitive or a {@link FlattenMode#KEEP_ARRAYS} array, same as {@link JsonFlattener#ROOT}.
+     */
+    public static final String ROOT = JsonFlattener.ROOT;
+
+    /**
+     * Flattens the JSON read from given stream and pushes each flattened entry to the consumer.
+     *
+     * @param json     the JSON input stream, which is not closed
+     * @param consumer the consumer of flattened keys and values
+     */
+    public static void flatten(InputStream json, BiConsumer<String, Object> consumer) {
+        new JsonStreamFlattener().flattenTo(json, consumer);
+    }
+
+    /**
+     * Flattens the JSON read from given reader and pushes each flattened entry to the consumer.
+     *
+     * @param json     the JSON reader, which is not closed
+     * @param consumer the consumer of flattened keys and values
+     */
+    public static void flatten(Reader json, BiConsumer<String, Object> consumer) {
+        new JsonStreamFlattener().flattenTo(json, consumer);
+    }
+
+    private FlattenerConfig config;
+
+    public JsonStreamFlattener() {
+        this(FlattenerConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a stream flattener with a shared configuration, the configuration can still be changed by the fluent setters of this flattener.
+     *
+     * @param config a {@link FlattenerConfig}
+     */
+    public JsonStreamFlattener(FlattenerConfig config) {
+        this.config = notNull(config);
+    }
+
+    /**
+     * Returns the current configuration of this {@link JsonStreamFlattener}.
+     *
+     * @return a {@link FlattenerConfig}
+     */
+    public FlattenerConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * A fluent setter to setup a mode of the {@link JsonStreamFlattener}.
+     *
+     * @param flattenMode a {@link FlattenMode}
+     * @return this {@link JsonStreamFlattener}
+     */
+    public JsonStreamFlattener withFlattenMode(FlattenMode flattenMode) {
+        this.config = config.withFlattenMode(flattenMode);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup the JSON string escape policy, which applies to keys with reserved characters.
+     *
+     * @param policy any {@link TranslatorFactory} or a {@link StringEscapePolicy}
+     * @return this {@link JsonStreamFlattener}
+     */
+    public JsonStreamFlattener withStringEscapePolicy(TranslatorFactory policy) {
+        this.config = config.withStringEscapePolicy(policy);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup the separator within a key in the flattened JSON. The default separator is a dot(.).
+     *
+     * @param separator any character
+     * @return this {@link JsonStreamFlattener}
+     */
+    public JsonStreamFlattener withSeparator(char separator) {
+        this.config = config.withSeparator(separator);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup the left and right brackets within a key in the flattened JSON. The default left and right brackets are left square bracket([) and right square bracket(]).
+     *
+     * @param leftBracket  any character
+     * @param rightBracket any character
+     * @return this {@link JsonStreamFlattener}
+     */
+    public JsonStreamFlattener withLeftAndRightBrackets(char leftBracket, char rightBracket) {
+        this.config = config.withLeftAndRightBrackets(leftBracket, rightBracket);
+        return this;
+    }
+
+    /**
+     * A fluent setter to setup a {@link KeyTransformer} of the {@link JsonStreamFlattener}.
+     *
+     * @param keyTrans a {@link KeyTransformer}
+     * @return this {@link JsonStreamFlattener}
+     */
+    public JsonStreamFlattener withKeyTransformer(KeyTransformer keyTrans) {
+        this.config = config.withKeyTransformer(keyTrans);
+        return this;
+    }
+
+    /**
+     * After this option is enable, all reserved characters used in keys will stop to be checked and escaped.
+     *
+     * @return this {@link JsonStreamFlattener}
+     * @see JsonFlattener#ignoreReservedCharacters()
+     */
+    public JsonStreamFlattener ignoreReservedCharacters() {
+        this.config = config.ignoreReservedCharacters();
+        return this;
+    }
+
+    /**
+     * Flattens the JSON read from given stream and pushes each flattened entry to the consumer.
+     *
+     * @param json     the JSON input stream, which is not closed
+     * @param consumer the consumer of flattened keys and values
+     */
+    public void flattenTo(InputStream json, BiConsumer<String, Object> consumer) {
+        try (JsonParser parser = Json.underMapper().createParser(notNull(json))) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            flattenTo(parser, consumer);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("FlattenJsonStream", ex);
+        }
+    }
+
+    /**
+     * Flattens the JSON read from given reader and pushes each flattened entry to the consumer.
+     *
+     * @param json     the JSON reader, which is not closed
+     * @param consumer the consumer of flattened keys and values
+     */
+    public void flattenTo(Reader json, BiConsumer<String, Object> consumer) {
+        try (JsonParser parser = Json.underMapper().createParser(notNull(json))) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            flattenTo(parser, consumer);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("FlattenJsonStream", ex);
+        }
+    }
+
+    /**
+     * Flattens the next JSON value of given parser and pushes each flattened entry to the consumer.
+     * The parser is left on the last token of the value and is not closed.
+     *
+     * @param parser   a Jackson parser
+     * @param consumer the consumer of flattened keys and values
+     */
+    public void flattenTo(JsonParser parser, BiConsumer<String, Object> consumer) {
+        notNull(consumer);
+        Iterator<Entry<String, Object>> entries = iterator(parser);
+        while (entries.hasNext()) {
+            Entry<String, Object> entry = entries.next();
+            consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns a lazy iterator of flattened entries over the JSON read from given stream.
+     * The stream is read on demand and is not closed, the parser is closed after the last entry or by {@link EntryIterator#close()}.
+     *
+     * @param json the JSON input stream
+     * @return an iterator of flattened entries
+     */
+    public EntryIterator iterator(InputStream json) {
+        try {
+            return ownedIterator(Json.underMapper().createParser(notNull(json)));
+        } catch (IOException ex) {
+            throw JsonException.ofAction("FlattenJsonStream", ex);
+        }
+    }
+
+    /**
+     * Returns a lazy iterator of flattened entries over the JSON read from given reader.
+     * The reader is read on demand and is not closed, the parser is closed after the last entry or by {@link EntryIterator#close()}.
+     *
+     * @param json the JSON reader
+     * @return an iterator of flattened entries
+     */
+    public EntryIterator iterator(Reader json) {
+        try {
+            return ownedIterator(Json.underMapper().createParser(notNull(json)));
+        } catch (IOException ex) {
+            throw JsonException.ofAction("FlattenJsonStream", ex);
+        }
+    }
+
+    /**
+     * Returns a lazy iterator of flattened entries over the next JSON value of given parser.
+     *
+     * @param parser a Jackson parser
+     * @return an iterator of flattened entries
+     */
+    public Iterator<Entry<String, Object>> iterator(JsonParser parser) {
+        notNull(parser);
+        try {
+            JsonToken first = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+            return new CursorIterator(new Cursor(config, parser, first), null);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("FlattenJsonStream", ex);
+        }
+    }
+
+    private EntryIterator ownedIterator(JsonParser parser) throws IOException {
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try {
+            return new CursorIterator(new Cursor(config, parser, parser.nextToken()), parser);
+        } catch (IOException | RuntimeException ex) {
+            parser.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * An iterator of flattened entries over a parser it created, closing the parser releases its buffers but not the source.
+     * The parser is closed after the last entry, on malformed input or by {@link #close()}, a closed iterator has no more entries.
+     */
+    public interface EntryIterator extends Iterator<Entry<String, Object>>, AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static Object scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isScalar(JsonToken token) {
+        return token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY;
+    }
+
+    /**
+     * One nesting level of the document, either an object with its current member name or an array with its current index.
+     */
+    private static final class Frame {
+        private final boolean array;
+        private String name;
+        private int index = -1;
+        private int segmentStart;
+
+        private Frame(boolean array) {
+            this.array = array;
+        }
+    }
+
+    /**
+     * Walks one JSON value token by token, buffering only the entries produced by the last consumed token.
+     * The configuration is captured when the cursor is created, so it stays the same for the whole value.
+     */
+    private static final class Cursor {
+        private final FlattenerConfig config;
+        private final JsonParser parser;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Deque<Entry<String, Object>> pending = new ArrayDeque<>();
+        private final StringBuilder keyBuilder = new StringBuilder(64);
+        private JsonToken first;
+
+        private Cursor(FlattenerConfig config, JsonParser parser, JsonToken first) {
+            this.config = config;
+            this.parser = parser;
+            this.first = first;
+        }
+
+        private Entry<String, Object> next() throws IOException {
+            while (pending.isEmpty()) {
+                if (first != null) {
+                    JsonToken token = first;
+                    first = null;
+                    reduce(token);
+                    continue;
+                }
+                if (frames.isEmpty()) {
+                    return null;
+                }
+
+                JsonToken token = nextToken();
+                Frame deepest = frames.getLast();
+                if (deepest.array) {
+                    if (token == JsonToken.END_ARRAY) {
+                        frames.removeLast();
+                    } else {
+                        deepest.index++;
+                        enter(deepest);
+                        reduce(token);
+                    }
+                } else {
+                    if (token == JsonToken.END_OBJECT) {
+                        frames.removeLast();
+                    } else { // FIELD_NAME
+                        deepest.name = parser.currentName();
+                        enter(deepest);
+                        reduce(nextToken());
+                    }
+                }
+            }
+
+            return pending.poll();
+        }
+
+        private JsonToken nextToken() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw JsonException.of("FlattenJsonStream, unexpected end of input");
+            }
+            return token;
+        }
+
+        private void reduce(JsonToken token) throws IOException {
+            if (token == JsonToken.START_OBJECT) {
+                JsonToken next = nextToken();
+                if (next == JsonToken.END_OBJECT) {
+                    // Check NOT empty JSON object
+                    if (!frames.isEmpty()) {
+                        emit(computeKey(), config.createJsonifyLinkedHashMap());
+                    }
+                } else {
+                    Frame frame = new Frame(false);
+                    frame.name = parser.currentName();
+                    push(frame);
+                    reduce(nextToken());
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                JsonToken next = nextToken();
+                if (next == JsonToken.END_ARRAY) {
+                    emit(computeKey(), config.createJsonifyArrayList());
+                    return;
+                }
+                switch (config.getFlattenMode()) {
+                    case KEEP_PRIMITIVE_ARRAYS:
+                        reducePrimitiveArray(next);
+                        break;
+                    case KEEP_ARRAYS:
+                        emit(computeKey(), readArray(next));
+                        break;
+                    default:
+                        Frame frame = new Frame(true);
+                        frame.index = 0;
+                        push(frame);
+                        reduce(next);
+                }
+            } else {
+                emit(computeKey(), scalarValue(parser, token));
+            }
+        }
+
+        private void reducePrimitiveArray(JsonToken token) throws IOException {
+            JsonifyArrayList<Object> array = config.createJsonifyArrayList();
+            while (token != JsonToken.END_ARRAY && isScalar(token)) {
+                array.add(scalarValue(parser, token));
+                token = nextToken();
+            }
+            if (token == JsonToken.END_ARRAY) {
+                emit(computeKey(), array);
+                return;
+            }
+
+            Frame frame = new Frame(true);
+            frame.index = 0;
+            push(frame);
+            for (Object value : array) {
+                emit(computeKey(), value);
+                frame.index++;
+                enter(frame);
+            }
+            reduce(token);
+        }
+
+        private JsonifyArrayList<Object> readArray(JsonToken token) throws IOException {
+            JsonifyArrayList<Object> array = config.createJsonifyArrayList();
+            while (token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_ARRAY) {
+                    JsonToken next = nextToken();
+                    array.add(next == JsonToken.END_ARRAY ? config.createJsonifyArrayList() : readArray(next));
+                } else if (token == JsonToken.START_OBJECT) {
+                    array.add(readObject());
+                } else {
+                    array.add(scalarValue(parser, token));
+                }
+                token = nextToken();
+            }
+            return array;
+        }
+
+        private JsonifyLinkedHashMap<String, Object> readObject() throws IOException {
+            JsonifyLinkedHashMap<String, Object> map = config.createJsonifyLinkedHashMap();
+            Cursor nested = new Cursor(config, parser, JsonToken.START_OBJECT);
+            for (Entry<String, Object> entry = nested.next(); entry != null; entry = nested.next()) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+            return map;
+        }
+
+        private void emit(String key, Object value) {
+            pending.add(new SimpleImmutableEntry<>(key, value));
+        }
+
+        /**
+         * Enters a new level whose first member or element is already set, the level keeps the key built so far as its prefix.
+         */
+        private void push(Frame frame) {
+            frame.segmentStart = keyBuilder.length();
+            frames.add(frame);
+            enter(frame);
+        }
+
+        /**
+         * Replaces the key segment of given level, which must be the deepest, by its current member name or index.
+         */
+        private void enter(Frame frame) {
+            keyBuilder.setLength(frame.segmentStart);
+            if (frame.array) {
+                config.appendIndex(keyBuilder, frame.index);
+            } else {
+                config.appendKey(keyBuilder, frame.name);
+            }
+        }
+
+        private String computeKey() {
+            if (frames.isEmpty()) {
+                return ROOT;
+            }
+
+            return keyBuilder.toString();
+        }
+
+    }
+
+    private static final class CursorIterator implements EntryIterator {
+        private final Cursor cursor;
+        private final JsonParser ownedParser;
+        private Entry<String, Object> next;
+
+        private CursorIterator(Cursor cursor, JsonParser ownedParser) {
+            this.cursor = cursor;
+            this.ownedParser = ownedParser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                if (ownedParser != null && ownedParser.isClosed()) {
+                    return false;
+                }
+                try {
+                    next = cursor.next();
+                } catch (IOException ex) {
+                    close();
+                    throw JsonException.ofAction("FlattenJsonStream", ex);
+                } catch (RuntimeException ex) {
+                    // malformed input closes the parser like the end of input does
+                    close();
+                    throw ex;
+                }
+                if (next == null) {
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public void close() {
+            if (ownedParser != null && !ownedParser.isClosed()) {
+                try {
+                    ownedParser.close();
+                } catch (IOException ex) {
+                    throw JsonException.ofAction("FlattenJsonStream", ex);
+                }
+            }
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.infilos.relax.flat;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.regex.Pattern;
+
+import com.infilos.relax.JsonCompactor;
+import com.infilos.relax.JsonStreamCompactor;
+
+/**
+ * An immutable configuration of {@link JsonCompactor} and {@link JsonStreamCompactor}.
+ * <br>
+ * Each fluent setter returns a new configuration, so a configuration can be built once, shared across threads and applied to any number of documents.
+ * The {@link KeyPathTokenizer} of a configuration is shared by all configurations with the same key settings and {@link KeyTransformer} instance,
+ * so parsed key paths are reused by every document compacted with an equal configuration, even one rebuilt per document by fluent setters.
+ */
+public final class CompactorConfig {
+
+    /**
+     * The default configuration: {@link FlattenMode#NORMAL}, dot(.) separator, square brackets and minimal print mode.
+     */
+    public static final CompactorConfig DEFAULT = new CompactorConfig(
+        FlattenMode.NORMAL, '.', '[', ']', PrintMode.MINIMAL, null
+    );
+
+    private final FlattenMode flattenMode;
+    private final char separator;
+    private final char leftBracket;
+    private final char rightBracket;
+    private final PrintMode printMode;
+    private final KeyTransformer keyTransformer;
+    private final KeyPathTokenizer tokenizer;
+
+    private CompactorConfig(FlattenMode flattenMode, char separator, char leftBracket, char rightBracket,
+                            PrintMode printMode, KeyTransformer keyTransformer) {
+        this.flattenMode = flattenMode;
+        this.separator = separator;
+        this.leftBracket = leftBracket;
+        this.rightBracket = rightBracket;
+        this.printMode = printMode;
+        this.keyTransformer = keyTransformer;
+        this.tokenizer = KeyPathTokenizer.shared(flattenMode, separator, leftBracket, rightBracket, keyTransformer);
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link FlattenMode}.
+     *
+     * @param flattenMode a {@link FlattenMode}
+     * @return a new {@link CompactorConfig}
+     */
+    public CompactorConfig withFlattenMode(FlattenMode flattenMode) {
+        return new CompactorConfig(notNull(flattenMode), separator, leftBracket, rightBracket, printMode, keyTransformer);
+    }
+
+    /**
+     * Returns a copy of this configuration with given separator within a key. The default separator is a dot(.).
+     *
+     * @param separator any character
+     * @return a new {@link CompactorConfig}
+     */
+    public CompactorConfig withSeparator(char separator) {
+        String separatorStr = String.valueOf(separator);
+        isTrue(!separatorStr.matches("[\"\\s]"), "Separator contains illegal character(%s)", separatorStr);
+        isTrue(
+            leftBracket != separator && rightBracket != separator,
+            "Separator(%s) is already used in brackets", separatorStr
+        );
+
+        return new CompactorConfig(flattenMode, separator, leftBracket, rightBracket, printMode, keyTransformer);
+    }
+
+    private String illegalBracketsRegex() {
+        return "[\"\\s" + Pattern.quote(String.valueOf(separator)) + "]";
+    }
+
+    /**
+     * Returns a copy of this configuration with given left and right brackets within a key. The default left and right brackets are left square bracket([) and right square bracket(]).
+     *
+     * @param leftBracket  any character
+     * @param rightBracket any character
+     * @return a new {@link CompactorConfig}
+     */
+    public CompactorConfig withLeftAndRightBrackets(char leftBracket, char rightBracket) {
+        isTrue(leftBracket != rightBracket, "Both brackets cannot be the same");
+        String leftBracketStr = String.valueOf(leftBracket);
+        String rightBracketStr = String.valueOf(rightBracket);
+        isTrue(!leftBracketStr.matches(illegalBracketsRegex()),
+            "Left bracket contains illegal character(%s)", leftBracketStr);
+        isTrue(!rightBracketStr.matches(illegalBracketsRegex()),
+            "Right bracket contains illegal character(%s)", rightBracketStr);
+
+        return new CompactorConfig(flattenMode, separator, leftBracket, rightBracket, printMode, keyTransformer);
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link PrintMode}. The default print mode is minimal.
+     *
+     * @param printMode a {@link PrintMode}
+     * @return a new {@link CompactorConfig}
+     */
+    public CompactorConfig withPrintMode(PrintMode printMode) {
+        return new CompactorConfig(flattenMode, separator, leftBracket, rightBracket, notNull(printMode), keyTransformer);
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link KeyTransformer}.
+     *
+     * @param keyTransformer a {@link KeyTransformer}
+     * @return a new {@link CompactorConfig}
+     */
+    public CompactorConfig withKeyTransformer(KeyTransformer keyTransformer) {
+        return new CompactorConfig(flattenMode, separator, leftBracket, rightBracket, printMode, notNull(keyTransformer));
+    }
+
+    public FlattenMode getFlattenMode() {
+        return flattenMode;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    public char getLeftBracket() {
+        return leftBracket;
+    }
+
+    public char getRightBracket() {
+        return rightBracket;
+    }
+
+    public PrintMode getPrintMode() {
+        return printMode;
+    }
+
+    public KeyTransformer getKeyTransformer() {
+        return keyTransformer;
+    }
+
+    /**
+     * Returns the tokenizer splitting flattened keys of this configuration.
+     *
+     * @return a {@link KeyPathTokenizer}
+     */
+    public KeyPathTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactorConfig{flattenMode=" + flattenMode
+            + ", separator=" + separator
+            + ", brackets=" + leftBracket + rightBracket
+            + ", printMode=" + printMode + "}";
+    }
+}
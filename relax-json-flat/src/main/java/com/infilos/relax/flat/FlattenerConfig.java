@@ -0,0 +1,350 @@
+package com.infilos.relax.flat;
+
+import static com.infilos.relax.flat.FlattenMode.MONGO;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import com.infilos.relax.JsonFlattener;
+import com.infilos.relax.JsonStreamFlattener;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * An immutable configuration of {@link JsonFlattener} and {@link JsonStreamFlattener}.
+ * <br>
+ * Each fluent setter returns a new configuration, so a configuration can be built once, shared across threads and applied to any number of documents.
+ * <br>
+ * <br>
+ * For example:<br>
+ * FlattenerConfig config = FlattenerConfig.DEFAULT.withSeparator('_').withFlattenMode(FlattenMode.KEEP_ARRAYS);<br>
+ * Map{@literal <String, Object>} flattened = JsonFlattener.flattenAsMap(json, config);
+ */
+public final class FlattenerConfig {
+
+    /**
+     * The default configuration: {@link FlattenMode#NORMAL}, {@link StringEscapePolicy#DEFAULT}, dot(.) separator, square brackets and minimal print mode.
+     */
+    public static final FlattenerConfig DEFAULT = new FlattenerConfig(
+        FlattenMode.NORMAL, StringEscapePolicy.DEFAULT, '.', '[', ']', PrintMode.MINIMAL, null, false, 0, null
+    );
+
+    private final FlattenMode flattenMode;
+    private final TranslatorFactory policy;
+    private final CharSequenceTranslator translator;
+    private final char separator;
+    private final char leftBracket;
+    private final char rightBracket;
+    private final PrintMode printMode;
+    private final KeyTransformer keyTransformer;
+    private final boolean ignoreReservedCharacters;
+    private final int splitThreshold;
+    private final ForkJoinPool forkJoinPool;
+
+    private FlattenerConfig(FlattenMode flattenMode, TranslatorFactory policy,
+                            char separator, char leftBracket, char rightBracket,
+                            PrintMode printMode, KeyTransformer keyTransformer, boolean ignoreReservedCharacters,
+                            int splitThreshold, ForkJoinPool forkJoinPool) {
+        this.flattenMode = flattenMode;
+        this.policy = policy;
+        this.translator = policy.getTranslator();
+        this.separator = separator;
+        this.leftBracket = leftBracket;
+        this.rightBracket = rightBracket;
+        this.printMode = printMode;
+        this.keyTransformer = keyTransformer;
+        this.ignoreReservedCharacters = ignoreReservedCharacters;
+        this.splitThreshold = splitThreshold;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link FlattenMode}.
+     *
+     * @param flattenMode a {@link FlattenMode}
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withFlattenMode(FlattenMode flattenMode) {
+        return new FlattenerConfig(notNull(flattenMode), policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration with given JSON string escape policy.
+     *
+     * @param policy any {@link TranslatorFactory} or a {@link StringEscapePolicy}
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withStringEscapePolicy(TranslatorFactory policy) {
+        return new FlattenerConfig(flattenMode, notNull(policy), separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration with given separator within a key. The default separator is a dot(.).
+     *
+     * @param separator any character
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withSeparator(char separator) {
+        String separatorStr = String.valueOf(separator);
+        isTrue(!separatorStr.matches("[\"\\s]"), "Separator contains illegal character(%s)", separatorStr);
+        isTrue(leftBracket != separator && rightBracket != separator, "Separator(%s) is already used in brackets", separatorStr);
+
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    private String illegalBracketsRegex() {
+        return "[\"\\s" + Pattern.quote(String.valueOf(separator)) + "]";
+    }
+
+    /**
+     * Returns a copy of this configuration with given left and right brackets within a key. The default left and right brackets are left square bracket([) and right square bracket(]).
+     *
+     * @param leftBracket  any character
+     * @param rightBracket any character
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withLeftAndRightBrackets(char leftBracket, char rightBracket) {
+        isTrue(leftBracket != rightBracket, "Both brackets cannot be the same");
+
+        String leftBracketStr = String.valueOf(leftBracket);
+        String rightBracketStr = String.valueOf(rightBracket);
+        isTrue(!leftBracketStr.matches(illegalBracketsRegex()), "Left bracket contains illegal character(%s)", leftBracketStr);
+        isTrue(!rightBracketStr.matches(illegalBracketsRegex()), "Right bracket contains illegal character(%s)", rightBracketStr);
+
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link PrintMode}. The default print mode is minimal.
+     *
+     * @param printMode a {@link PrintMode}
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withPrintMode(PrintMode printMode) {
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            notNull(printMode), keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration with given {@link KeyTransformer}.
+     *
+     * @param keyTransformer a {@link KeyTransformer}
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withKeyTransformer(KeyTransformer keyTransformer) {
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, notNull(keyTransformer), ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration which stops checking and escaping reserved characters in keys.
+     *
+     * @return a new {@link FlattenerConfig}
+     * @see JsonFlattener#ignoreReservedCharacters()
+     */
+    public FlattenerConfig ignoreReservedCharacters() {
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, true, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration which flattens large root arrays or objects in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param splitThreshold the most root elements or members flattened by one task, smaller roots stay on the calling thread
+     * @return a new {@link FlattenerConfig}
+     * @see #withParallelism(ForkJoinPool, int)
+     */
+    public FlattenerConfig withParallelism(int splitThreshold) {
+        return withParallelism(ForkJoinPool.commonPool(), splitThreshold);
+    }
+
+    /**
+     * Returns a copy of this configuration which flattens large root arrays or objects in parallel.
+     * <br>
+     * The root elements or members are split into ranges of at most splitThreshold, each range is flattened by a task of given pool
+     * with this configuration, and the results are merged in the original order, so the flattened JSON is the same as a sequential one.
+     * Roots which are not flattened element by element, like arrays kept by {@link FlattenMode#KEEP_ARRAYS}, stay sequential.
+     *
+     * @param forkJoinPool   the pool running the tasks
+     * @param splitThreshold the most root elements or members flattened by one task, smaller roots stay on the calling thread
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig withParallelism(ForkJoinPool forkJoinPool, int splitThreshold) {
+        notNull(forkJoinPool);
+        isTrue(splitThreshold > 0, "Split threshold must be positive(%s)", splitThreshold);
+
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, splitThreshold, forkJoinPool);
+    }
+
+    /**
+     * Returns a copy of this configuration which flattens everything on the calling thread, which is the default.
+     *
+     * @return a new {@link FlattenerConfig}
+     */
+    public FlattenerConfig sequential() {
+        return new FlattenerConfig(flattenMode, policy, separator, leftBracket, rightBracket,
+            printMode, keyTransformer, ignoreReservedCharacters, 0, null);
+    }
+
+    public FlattenMode getFlattenMode() {
+        return flattenMode;
+    }
+
+    public TranslatorFactory getStringEscapePolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the translator of the escape policy, obtained once when this configuration is created.
+     *
+     * @return a {@link CharSequenceTranslator}
+     */
+    public CharSequenceTranslator getTranslator() {
+        return translator;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    public char getLeftBracket() {
+        return leftBracket;
+    }
+
+    public char getRightBracket() {
+        return rightBracket;
+    }
+
+    public PrintMode getPrintMode() {
+        return printMode;
+    }
+
+    public KeyTransformer getKeyTransformer() {
+        return keyTransformer;
+    }
+
+    public boolean isIgnoreReservedCharacters() {
+        return ignoreReservedCharacters;
+    }
+
+    public boolean isParallel() {
+        return forkJoinPool != null;
+    }
+
+    /**
+     * Returns the most root elements or members flattened by one task, or 0 if flattening is sequential.
+     *
+     * @return the split threshold
+     */
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * Returns the pool of parallel flattening, or null if flattening is sequential.
+     *
+     * @return a {@link ForkJoinPool}
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Returns true if given key contains the separator or brackets, and needs to be quoted in a flattened key.
+     *
+     * @param key a JSON key
+     * @return true if the key contains reserved characters
+     * @throws IllegalArgumentException if the key contains the separator in {@link FlattenMode#MONGO}
+     */
+    public boolean hasReservedCharacters(String key) {
+        if (flattenMode.equals(MONGO) && StringUtils.containsAny(key, separator))
+            throw new IllegalArgumentException("Key cannot contain separator("
+                + separator + ") in FlattenMode." + MONGO);
+
+        return StringUtils.containsAny(key, separator, leftBracket, rightBracket);
+    }
+
+    /**
+     * Appends the segment of an object key to a flattened key.
+     * The key is transformed by the {@link KeyTransformer} if any, and quoted within brackets if it contains reserved characters.
+     *
+     * @param flattenedKey the flattened key of the enclosing object
+     * @param key          a JSON key
+     */
+    public void appendKey(StringBuilder flattenedKey, String key) {
+        if (keyTransformer != null) {
+            key = keyTransformer.transform(key);
+        }
+        if (!ignoreReservedCharacters && hasReservedCharacters(key)) {
+            flattenedKey.append(leftBracket);
+            flattenedKey.append('"');
+            JsonStringEscaper.translateTo(translator, key, flattenedKey);
+            flattenedKey.append('"');
+            flattenedKey.append(rightBracket);
+        } else {
+            if (flattenedKey.length() != 0) {
+                flattenedKey.append(separator);
+            }
+            flattenedKey.append(key);
+        }
+    }
+
+    /**
+     * Appends the segment of an array index to a flattened key.
+     *
+     * @param flattenedKey the flattened key of the enclosing array
+     * @param index        an array index
+     */
+    public void appendIndex(StringBuilder flattenedKey, int index) {
+        if (flattenMode == MONGO) {
+            flattenedKey.append(separator);
+            flattenedKey.append(index);
+        } else {
+            flattenedKey.append(leftBracket);
+            flattenedKey.append(index);
+            flattenedKey.append(rightBracket);
+        }
+    }
+
+    /**
+     * Returns an empty {@link JsonifyArrayList} which escapes strings by this configuration.
+     *
+     * @param <T> the type of elements
+     * @return a {@link JsonifyArrayList}
+     */
+    public <T> JsonifyArrayList<T> createJsonifyArrayList() {
+        JsonifyArrayList<T> array = new JsonifyArrayList<>();
+        array.setTranslator(translator);
+        return array;
+    }
+
+    /**
+     * Returns an empty {@link JsonifyLinkedHashMap} which escapes strings by this configuration.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return a {@link JsonifyLinkedHashMap}
+     */
+    public <K, V> JsonifyLinkedHashMap<K, V> createJsonifyLinkedHashMap() {
+        JsonifyLinkedHashMap<K, V> map = new JsonifyLinkedHashMap<>();
+        map.setTranslator(translator);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "FlattenerConfig{flattenMode=" + flattenMode
+            + ", separator=" + separator
+            + ", brackets=" + leftBracket + rightBracket
+            + ", printMode=" + printMode
+            + ", ignoreReservedCharacters=" + ignoreReservedCharacters
+            + ", splitThreshold=" + splitThreshold + "}";
+    }
+}
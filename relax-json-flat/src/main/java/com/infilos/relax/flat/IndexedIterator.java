@@ -23,14 +23,25 @@ public final class IndexedIterator<E> implements Iterator<E> {
     private final Iterator<? extends E> iterator;
     private E peek;
     private boolean hasPeek = false;
-    private int index = -1;
+    private int index;
     private E current = null;
 
     public IndexedIterator(Iterator<? extends E> iterator) {
+        this(iterator, 0);
+    }
+
+    /**
+     * Creates an {@link IndexedIterator} whose first element has given index, like an iterator over a range of a larger list.
+     *
+     * @param iterator   any Iterator
+     * @param firstIndex the index of the first element
+     */
+    public IndexedIterator(Iterator<? extends E> iterator, int firstIndex) {
         if (iterator == null) {
             throw new NullPointerException();
         }
         this.iterator = iterator;
+        this.index = firstIndex - 1;
     }
 
     private void peeking() {
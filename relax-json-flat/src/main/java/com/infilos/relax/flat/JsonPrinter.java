@@ -1,9 +1,19 @@
 package com.infilos.relax.flat;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 /**
  * Reprints any JSON input into minimal or pretty form.
+ * <br>
+ * The input is reformatted character by character with a small state machine which skips escaped quotes within strings,
+ * so printing a {@link Reader} to a {@link Writer} takes constant memory whatever the size of the JSON.
  */
 public class JsonPrinter {
+    private static final int BUFFER_SIZE = 8192;
+
     private JsonPrinter() {
     }
 
@@ -15,23 +25,26 @@ public class JsonPrinter {
             throw new NullPointerException();
         }
 
-        StringBuilder minimalPrintBuilder = new StringBuilder();
-        boolean inQuote = false;
-
-        for (char jsonChar : json.toCharArray()) {
-            if (jsonChar == '"') {
-                inQuote = !inQuote;
-                minimalPrintBuilder.append(jsonChar);
-            } else {
-                if (inQuote || !Character.toString(jsonChar).matches("\\s")) {
-                    minimalPrintBuilder.append(jsonChar);
-                }
-            }
-        }
+        StringBuilder minimalPrintBuilder = new StringBuilder(json.length());
+        printMinimal(json, minimalPrintBuilder);
 
         return minimalPrintBuilder.toString();
     }
 
+    /**
+     * Appends a minimal print JSON of any JSON input to given builder.
+     */
+    public static void printMinimal(CharSequence json, StringBuilder out) {
+        print(json, new Printer(out, null));
+    }
+
+    /**
+     * Writes a minimal print JSON of any JSON input read from given reader, neither the reader nor the writer is closed.
+     */
+    public static void printMinimal(Reader json, Writer out) throws IOException {
+        print(json, new Printer(out, null));
+    }
+
     /**
      * Returns a pretty print JSON of any JSON input.
      */
@@ -46,78 +59,199 @@ public class JsonPrinter {
         if (json == null) {
             throw new NullPointerException();
         }
-        StringBuilder prettyPrintBuilder = new StringBuilder();
 
-        int indentLevel = 0;
-        boolean inQuote = false;
-        boolean inBracket = false;
-        for (char jsonChar : json.toCharArray()) {
+        StringBuilder prettyPrintBuilder = new StringBuilder(json.length() + (json.length() >> 1));
+        printPretty(json, prettyPrintBuilder, indentStr);
+
+        return prettyPrintBuilder.toString();
+    }
+
+    /**
+     * Appends a pretty print JSON of any JSON input to given builder.
+     */
+    public static void printPretty(CharSequence json, StringBuilder out, String indentStr) {
+        print(json, new Printer(out, notNullIndent(indentStr)));
+    }
+
+    /**
+     * Writes a pretty print JSON of any JSON input read from given reader, neither the reader nor the writer is closed.
+     */
+    public static void printPretty(Reader json, Writer out) throws IOException {
+        printPretty(json, out, "  ");
+    }
+
+    /**
+     * Writes a pretty print JSON of any JSON input read from given reader, neither the reader nor the writer is closed.
+     */
+    public static void printPretty(Reader json, Writer out, String indentStr) throws IOException {
+        print(json, new Printer(out, notNullIndent(indentStr)));
+    }
+
+    private static String notNullIndent(String indentStr) {
+        if (indentStr == null) {
+            throw new NullPointerException();
+        }
+        return indentStr;
+    }
+
+    private static void print(CharSequence json, Printer printer) {
+        if (json == null) {
+            throw new NullPointerException();
+        }
+        try {
+            for (int i = 0, length = json.length(); i < length; i++) {
+                printer.accept(json.charAt(i));
+            }
+            printer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void print(Reader json, Printer printer) throws IOException {
+        if (json == null) {
+            throw new NullPointerException();
+        }
+        char[] buffer = new char[BUFFER_SIZE];
+        for (int read = json.read(buffer); read != -1; read = json.read(buffer)) {
+            for (int i = 0; i < read; i++) {
+                printer.accept(buffer[i]);
+            }
+        }
+        printer.flush();
+    }
+
+    // same as regex \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Reformats one character at a time, the output goes to a builder directly or to a writer through a fixed buffer.
+     */
+    private static final class Printer {
+        private final StringBuilder builder;
+        private final Writer writer;
+        private final char[] buffer;
+        private int position = 0;
+
+        // null for minimal print
+        private final String indentStr;
+        private int indentLevel = 0;
+        private boolean inQuote = false;
+        private boolean escaped = false;
+        private boolean inBracket = false;
+
+        private Printer(StringBuilder builder, String indentStr) {
+            if (builder == null) {
+                throw new NullPointerException();
+            }
+            this.builder = builder;
+            this.writer = null;
+            this.buffer = null;
+            this.indentStr = indentStr;
+        }
+
+        private Printer(Writer writer, String indentStr) {
+            if (writer == null) {
+                throw new NullPointerException();
+            }
+            this.builder = null;
+            this.writer = writer;
+            this.buffer = new char[BUFFER_SIZE];
+            this.indentStr = indentStr;
+        }
+
+        private void accept(char jsonChar) throws IOException {
+            if (inQuote) {
+                if (escaped) {
+                    escaped = false;
+                } else if (jsonChar == '\\') {
+                    escaped = true;
+                } else if (jsonChar == '"') {
+                    inQuote = false;
+                }
+                append(jsonChar);
+                return;
+            }
+            if (jsonChar == '"') {
+                inQuote = true;
+                append(jsonChar);
+                return;
+            }
+            if (indentStr == null) {
+                if (!isWhitespace(jsonChar)) {
+                    append(jsonChar);
+                }
+                return;
+            }
+
             switch (jsonChar) {
-                case '"':
-                    inQuote = !inQuote;
-                    prettyPrintBuilder.append(jsonChar);
-                    break;
                 case '{':
-                    prettyPrintBuilder.append(jsonChar);
-                    if (!inQuote) {
-                        indentLevel++;
-                        appendNewLine(prettyPrintBuilder, indentLevel, indentStr);
-                    }
+                    append(jsonChar);
+                    indentLevel++;
+                    appendNewLine();
                     break;
                 case '}':
-                    if (!inQuote) {
-                        indentLevel--;
-                        appendNewLine(prettyPrintBuilder, indentLevel, indentStr);
-                    }
-                    prettyPrintBuilder.append(jsonChar);
+                    indentLevel--;
+                    appendNewLine();
+                    append(jsonChar);
                     break;
                 case '[':
-                    prettyPrintBuilder.append(jsonChar);
-                    if (!inQuote) {
-                        inBracket = true;
-                        prettyPrintBuilder.append(' ');
-                    }
+                    append(jsonChar);
+                    inBracket = true;
+                    append(' ');
                     break;
                 case ']':
-                    if (!inQuote) {
-                        inBracket = false;
-                        prettyPrintBuilder.append(' ');
-                    }
-                    prettyPrintBuilder.append(jsonChar);
+                    inBracket = false;
+                    append(' ');
+                    append(jsonChar);
                     break;
                 case ',':
-                    prettyPrintBuilder.append(jsonChar);
-                    if (!inQuote) {
-                        if (inBracket) {
-                            prettyPrintBuilder.append(' ');
-                        } else {
-                            appendNewLine(prettyPrintBuilder, indentLevel, indentStr);
-                        }
+                    append(jsonChar);
+                    if (inBracket) {
+                        append(' ');
+                    } else {
+                        appendNewLine();
                     }
                     break;
                 case ':':
-                    if (inQuote) {
-                        prettyPrintBuilder.append(jsonChar);
-                    } else {
-                        prettyPrintBuilder.append(' ');
-                        prettyPrintBuilder.append(jsonChar);
-                        prettyPrintBuilder.append(' ');
-                    }
+                    append(' ');
+                    append(jsonChar);
+                    append(' ');
                     break;
                 default:
-                    if (inQuote || !Character.toString(jsonChar).matches("\\s")) {
-                        prettyPrintBuilder.append(jsonChar);
+                    if (!isWhitespace(jsonChar)) {
+                        append(jsonChar);
                     }
             }
         }
 
-        return prettyPrintBuilder.toString();
-    }
+        private void appendNewLine() throws IOException {
+            append('\n');
+            for (int i = 0; i < indentLevel; i++) {
+                for (int j = 0; j < indentStr.length(); j++) {
+                    append(indentStr.charAt(j));
+                }
+            }
+        }
 
-    private static void appendNewLine(StringBuilder stringBuilder, int indentLevel, String indentStr) {
-        stringBuilder.append('\n');
-        for (int i = 0; i < indentLevel; i++) {
-            stringBuilder.append(indentStr);
+        private void append(char c) throws IOException {
+            if (builder != null) {
+                builder.append(c);
+                return;
+            }
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = c;
+        }
+
+        private void flush() throws IOException {
+            if (writer != null && position > 0) {
+                writer.write(buffer, 0, position);
+                position = 0;
+            }
         }
     }
 }
@@ -0,0 +1,236 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A JSON string escaper which scans the input first, and returns or appends the input unchanged when nothing needs to be escaped.
+ * <br>
+ * Escaped characters are written straight into the caller's buffer or writer, with the same output as the commons-text translators
+ * {@link StringEscapePolicy} used to aggregate: quote and backslash are always escaped, slash optionally,
+ * control characters as \b, \t, \n, \f, \r, and optionally everything outside a printable range as \\uXXXX.
+ * <br>
+ * It is still a {@link CharSequenceTranslator}, so it can be returned by any {@link TranslatorFactory},
+ * but the translate methods of {@link CharSequenceTranslator} are final and go through a character at a time,
+ * use {@link #translateTo} and {@link #translateToString} to take the fast path of an escaper and fall back to any other translator.
+ */
+public final class JsonStringEscaper extends CharSequenceTranslator {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Returns an escaper which leaves control characters without a short escape and non-ASCII characters as they are.
+     *
+     * @param escapeSlash whether to escape slash('/')
+     * @return a {@link JsonStringEscaper}
+     */
+    public static JsonStringEscaper withoutUnicode(boolean escapeSlash) {
+        return new JsonStringEscaper(escapeSlash, false, Character.MAX_VALUE);
+    }
+
+    /**
+     * Returns an escaper which escapes characters below 32 without a short escape and characters above given one as \\uXXXX.
+     *
+     * @param escapeSlash  whether to escape slash('/')
+     * @param maxPrintable the last character written as it is, like 0x7e or 0x7f
+     * @return a {@link JsonStringEscaper}
+     */
+    public static JsonStringEscaper withUnicode(boolean escapeSlash, char maxPrintable) {
+        return new JsonStringEscaper(escapeSlash, true, maxPrintable);
+    }
+
+    /**
+     * Returns the input translated by any translator, {@link JsonStringEscaper}s return the input itself if nothing needs to be escaped.
+     *
+     * @param translator any {@link CharSequenceTranslator}
+     * @param input      the input to translate
+     * @return the translated input
+     */
+    public static String translateToString(CharSequenceTranslator translator, CharSequence input) {
+        if (translator instanceof JsonStringEscaper) {
+            return ((JsonStringEscaper) translator).escape(input);
+        }
+        return translator.translate(input);
+    }
+
+    /**
+     * Appends the input translated by any translator to given builder, {@link JsonStringEscaper}s append without intermediate strings.
+     *
+     * @param translator any {@link CharSequenceTranslator}
+     * @param input      the input to translate
+     * @param out        the builder to append to
+     */
+    public static void translateTo(CharSequenceTranslator translator, CharSequence input, StringBuilder out) {
+        try {
+            translateTo(translator, input, (Appendable) out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Appends the input translated by any translator to given output, {@link JsonStringEscaper}s append without intermediate strings.
+     *
+     * @param translator any {@link CharSequenceTranslator}
+     * @param input      the input to translate
+     * @param out        any Appendable
+     * @throws IOException if the output fails
+     */
+    public static void translateTo(CharSequenceTranslator translator, CharSequence input, Appendable out) throws IOException {
+        if (translator instanceof JsonStringEscaper) {
+            ((JsonStringEscaper) translator).escape(input, out);
+        } else if (out instanceof Writer) {
+            translator.translate(input, (Writer) out);
+        } else {
+            out.append(translator.translate(input));
+        }
+    }
+
+    private final boolean escapeSlash;
+    private final boolean escapeUnicode;
+    private final char maxPrintable;
+
+    private JsonStringEscaper(boolean escapeSlash, boolean escapeUnicode, char maxPrintable) {
+        this.escapeSlash = escapeSlash;
+        this.escapeUnicode = escapeUnicode;
+        this.maxPrintable = maxPrintable;
+    }
+
+    private boolean needsEscape(char c) {
+        if (c < 32) {
+            return escapeUnicode || c == '\b' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+        }
+        if (c == '"' || c == '\\') {
+            return true;
+        }
+        if (c == '/') {
+            return escapeSlash;
+        }
+        return escapeUnicode && c > maxPrintable;
+    }
+
+    private int firstEscape(CharSequence input) {
+        for (int i = 0, length = input.length(); i < length; i++) {
+            if (needsEscape(input.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the escaped input to given output, the input is appended as a whole if nothing needs to be escaped.
+     *
+     * @param input the input to escape
+     * @param out   any Appendable
+     * @throws IOException if the output fails
+     */
+    public void escape(CharSequence input, Appendable out) throws IOException {
+        int first = firstEscape(input);
+        if (first < 0) {
+            out.append(input);
+        } else {
+            escape(input, first, out);
+        }
+    }
+
+    private void escape(CharSequence input, int first, Appendable out) throws IOException {
+        int length = input.length();
+        int start = 0;
+        for (int i = first; i < length; i++) {
+            char c = input.charAt(i);
+            if (needsEscape(c)) {
+                appendRange(input, start, i, out);
+                appendEscape(c, out);
+                start = i + 1;
+            }
+        }
+        appendRange(input, start, length, out);
+    }
+
+    /**
+     * Returns the escaped input, or the input itself as a String if nothing needs to be escaped.
+     *
+     * @param input the input to escape
+     * @return the escaped input
+     */
+    public String escape(CharSequence input) {
+        if (input == null) {
+            return null;
+        }
+        int first = firstEscape(input);
+        if (first < 0) {
+            return input.toString();
+        }
+
+        StringBuilder sb = new StringBuilder(input.length() + 16);
+        try {
+            escape(input, first, sb);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int translate(CharSequence input, int index, Writer writer) throws IOException {
+        char c = input.charAt(index);
+        if (!needsEscape(c)) {
+            return 0;
+        }
+        appendEscape(c, writer);
+        // a consumed surrogate pair counts as one code point
+        if (Character.isHighSurrogate(c) && index + 1 < input.length() && Character.isLowSurrogate(input.charAt(index + 1))) {
+            appendEscape(input.charAt(index + 1), writer);
+        }
+        return 1;
+    }
+
+    private static void appendRange(CharSequence input, int start, int end, Appendable out) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (out instanceof Writer && input instanceof String) {
+            ((Writer) out).write((String) input, start, end - start);
+        } else {
+            out.append(input, start, end);
+        }
+    }
+
+    private static void appendEscape(char c, Appendable out) throws IOException {
+        switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '/':
+                out.append("\\/");
+                break;
+            case '\b':
+                out.append("\\b");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\f':
+                out.append("\\f");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            default:
+                out.append("\\u")
+                    .append(HEX_DIGITS[(c >> 12) & 15])
+                    .append(HEX_DIGITS[(c >> 8) & 15])
+                    .append(HEX_DIGITS[(c >> 4) & 15])
+                    .append(HEX_DIGITS[c & 15]);
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.infilos.relax.flat;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
 
+import com.infilos.relax.json.JsonException;
 import org.apache.commons.text.translate.CharSequenceTranslator;
 
 /**
@@ -27,37 +28,33 @@ public class JsonifyArrayList<E> extends ArrayList<E> {
         this.translator = translator;
     }
 
-    public String toString(PrintMode printMode) {
-        if (printMode == PrintMode.PRETTY) {
-            return JsonPrinter.printPretty(toString());
+    public CharSequenceTranslator getTranslator() {
+        return translator;
+    }
+
+    /**
+     * Writes this array as JSON to given output in a single pass, nested collections are written in place.
+     *
+     * @param out       any Appendable, like a Writer or a StringBuilder, which is not flushed or closed
+     * @param printMode a {@link PrintMode}
+     */
+    public void writeTo(Appendable out, PrintMode printMode) {
+        try {
+            new JsonifyWriter(out, printMode).writeArray(this, translator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("WriteJsonify", ex);
         }
-        
-        return toString();
     }
 
-    @Override
-    public String toString() {
+    public String toString(PrintMode printMode) {
         StringBuilder sb = new StringBuilder();
-        sb.append('[');
-        for (E e : this) {
-            if (e instanceof String) {
-                sb.append('"');
-                sb.append(translator.translate((String) e));
-                sb.append('"');
-            } else if (e instanceof Collection) {
-                sb.append(new JsonifyArrayList<>((Collection<?>) e));
-            } else if (e instanceof Map) {
-                sb.append(new JsonifyLinkedHashMap<>((Map<?, ?>) e));
-            } else {
-                sb.append(e);
-            }
-            sb.append(',');
-        }
-        if (sb.length() > 1) {
-            sb.setLength(sb.length() - 1);
-        }
-        sb.append(']');
+        writeTo(sb, printMode);
 
         return sb.toString();
     }
+
+    @Override
+    public String toString() {
+        return toString(PrintMode.MINIMAL);
+    }
 }
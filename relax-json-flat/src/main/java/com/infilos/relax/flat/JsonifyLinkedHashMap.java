@@ -1,9 +1,10 @@
 package com.infilos.relax.flat;
 
-import java.util.Collection;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.infilos.relax.json.JsonException;
 import org.apache.commons.text.translate.CharSequenceTranslator;
 
 /**
@@ -27,41 +28,33 @@ public class JsonifyLinkedHashMap<K, V> extends LinkedHashMap<K, V> {
         this.translator = translator;
     }
 
-    public String toString(PrintMode printMode) {
-        if (printMode == PrintMode.PRETTY) {
-            return JsonPrinter.printPretty(toString());
+    public CharSequenceTranslator getTranslator() {
+        return translator;
+    }
+
+    /**
+     * Writes this map as JSON to given output in a single pass, nested collections are written in place.
+     *
+     * @param out       any Appendable, like a Writer or a StringBuilder, which is not flushed or closed
+     * @param printMode a {@link PrintMode}
+     */
+    public void writeTo(Appendable out, PrintMode printMode) {
+        try {
+            new JsonifyWriter(out, printMode).writeMap(this, translator);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("WriteJsonify", ex);
         }
-        
-        return toString();
     }
 
-    @Override
-    public String toString() {
+    public String toString(PrintMode printMode) {
         StringBuilder sb = new StringBuilder();
-        sb.append('{');
-        for (Map.Entry<K, V> mem : entrySet()) {
-            sb.append('"');
-            sb.append(translator.translate((String) mem.getKey()));
-            sb.append('"');
-            sb.append(':');
-            if (mem.getValue() instanceof String) {
-                sb.append('"');
-                sb.append(translator.translate((String) mem.getValue()));
-                sb.append('"');
-            } else if (mem.getValue() instanceof Collection) {
-                sb.append(new JsonifyArrayList<>((Collection<?>) mem.getValue()));
-            } else if (mem.getValue() instanceof Map) {
-                sb.append(new JsonifyLinkedHashMap<>((Map<?, ?>) mem.getValue()));
-            } else {
-                sb.append(mem.getValue());
-            }
-            sb.append(',');
-        }
-        if (sb.length() > 1) {
-            sb.setLength(sb.length() - 1);
-        }
-        sb.append('}');
+        writeTo(sb, printMode);
 
         return sb.toString();
     }
+
+    @Override
+    public String toString() {
+        return toString(PrintMode.MINIMAL);
+    }
 }
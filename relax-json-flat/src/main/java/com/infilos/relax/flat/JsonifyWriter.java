@@ -0,0 +1,117 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * Writes {@link JsonifyLinkedHashMap}, {@link JsonifyArrayList} and their nested values to an {@link Appendable} in a single pass.
+ * <br>
+ * Nested collections are written in place instead of being copied into new jsonify collections,
+ * and the pretty form is produced directly with the same layout as {@link JsonPrinter#printPretty(String)}.
+ */
+final class JsonifyWriter {
+    private static final String INDENT = "  ";
+
+    private final Appendable out;
+    private final boolean pretty;
+    private int indentLevel = 0;
+    private boolean inBracket = false;
+
+    JsonifyWriter(Appendable out, PrintMode printMode) {
+        this.out = out;
+        this.pretty = printMode == PrintMode.PRETTY;
+    }
+
+    void writeMap(Map<?, ?> map, CharSequenceTranslator translator) throws IOException {
+        out.append('{');
+        if (pretty) {
+            indentLevel++;
+            newLine();
+        }
+
+        boolean first = true;
+        for (Map.Entry<?, ?> mem : map.entrySet()) {
+            if (!first) {
+                separate();
+            }
+            first = false;
+
+            writeString(String.valueOf(mem.getKey()), translator);
+            out.append(pretty ? " : " : ":");
+            writeValue(mem.getValue(), translator);
+        }
+
+        if (pretty) {
+            indentLevel--;
+            newLine();
+        }
+        out.append('}');
+    }
+
+    void writeArray(Collection<?> array, CharSequenceTranslator translator) throws IOException {
+        out.append('[');
+        if (pretty) {
+            inBracket = true;
+            out.append(' ');
+        }
+
+        boolean first = true;
+        for (Object e : array) {
+            if (!first) {
+                separate();
+            }
+            first = false;
+
+            writeValue(e, translator);
+        }
+
+        if (pretty) {
+            inBracket = false;
+            out.append(' ');
+        }
+        out.append(']');
+    }
+
+    private void writeValue(Object value, CharSequenceTranslator translator) throws IOException {
+        if (value instanceof String) {
+            writeString((String) value, translator);
+        } else if (value instanceof JsonifyArrayList) {
+            writeArray((Collection<?>) value, ((JsonifyArrayList<?>) value).getTranslator());
+        } else if (value instanceof Collection) {
+            writeArray((Collection<?>) value, translator);
+        } else if (value instanceof JsonifyLinkedHashMap) {
+            writeMap((Map<?, ?>) value, ((JsonifyLinkedHashMap<?, ?>) value).getTranslator());
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, translator);
+        } else {
+            out.append(String.valueOf(value));
+        }
+    }
+
+    private void writeString(String value, CharSequenceTranslator translator) throws IOException {
+        out.append('"');
+        JsonStringEscaper.translateTo(translator, value, out);
+        out.append('"');
+    }
+
+    private void separate() throws IOException {
+        out.append(',');
+        if (pretty) {
+            if (inBracket) {
+                out.append(' ');
+            } else {
+                newLine();
+            }
+        }
+    }
+
+    private void newLine() throws IOException {
+        out.append('\n');
+        for (int i = 0; i < indentLevel; i++) {
+            out.append(INDENT);
+        }
+    }
+}
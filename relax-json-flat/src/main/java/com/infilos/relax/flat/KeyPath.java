@@ -0,0 +1,85 @@
+package com.infilos.relax.flat;
+
+import java.util.Arrays;
+
+/**
+ * An immutable flattened key split into its parts, each part is either an object key or an array index.
+ */
+public final class KeyPath {
+
+    private final Object[] parts;
+
+    KeyPath(Object[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * Returns the number of parts.
+     *
+     * @return the number of parts
+     */
+    public int size() {
+        return parts.length;
+    }
+
+    /**
+     * Returns true if the part at given position is an array index.
+     *
+     * @param i the position of part
+     * @return true if the part is an array index
+     */
+    public boolean isIndex(int i) {
+        return parts[i] instanceof Integer;
+    }
+
+    /**
+     * Returns the array index at given position.
+     *
+     * @param i the position of part
+     * @return the array index
+     */
+    public int index(int i) {
+        return (Integer) parts[i];
+    }
+
+    /**
+     * Returns the object key at given position, already transformed by the {@link KeyTransformer} if any.
+     *
+     * @param i the position of part
+     * @return the object key
+     */
+    public String key(int i) {
+        return (String) parts[i];
+    }
+
+    /**
+     * Returns the part at given position, either a String key or an Integer index.
+     *
+     * @param i the position of part
+     * @return the part
+     */
+    public Object part(int i) {
+        return parts[i];
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeyPath)) {
+            return false;
+        }
+        return Arrays.equals(parts, ((KeyPath) o).parts);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyPath" + Arrays.toString(parts);
+    }
+}
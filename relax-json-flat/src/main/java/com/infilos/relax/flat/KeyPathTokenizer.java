@@ -0,0 +1,273 @@
+package com.infilos.relax.flat;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.util.LRUMap;
+
+/**
+ * Splits flattened keys into {@link KeyPath}s without regular expressions.
+ * <br>
+ * In {@link FlattenMode#MONGO} a key is split by the separator and digit-only parts are array indexes.
+ * In other modes a key is made of array indexes like [0], complex keys like ["a.b"] and plain keys separated by the separator,
+ * the same grammar {@link com.infilos.relax.JsonCompactor} used to match by regex.
+ * <br>
+ * A tokenizer is immutable and thread-safe, parsed paths are cached per distinct key in a bounded LRU cache,
+ * so the same keys repeating across many records are only parsed once, while keys seen once make room for them.
+ */
+public final class KeyPathTokenizer {
+
+    /**
+     * The default number of distinct keys cached by a tokenizer, the least recently used keys are dropped beyond it.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final ConcurrentHashMap<String, KeyPathTokenizer> SHARED = new ConcurrentHashMap<>();
+    // by transformer identity, weakly, so tokenizers of transformers no configuration uses any more can be collected
+    private static final Map<KeyTransformer, Map<String, WeakReference<KeyPathTokenizer>>> SHARED_TRANSFORMING = new WeakHashMap<>();
+
+    /**
+     * Returns a tokenizer shared by all compactors with the same configuration and no {@link KeyTransformer}.
+     *
+     * @param flattenMode  a {@link FlattenMode}
+     * @param separator    the separator within a key
+     * @param leftBracket  the left bracket within a key
+     * @param rightBracket the right bracket within a key
+     * @return a shared tokenizer
+     */
+    public static KeyPathTokenizer shared(FlattenMode flattenMode, char separator, char leftBracket, char rightBracket) {
+        String config = flattenMode.name() + separator + leftBracket + rightBracket;
+        return SHARED.computeIfAbsent(config, k -> new KeyPathTokenizer(flattenMode, separator, leftBracket, rightBracket, null));
+    }
+
+    /**
+     * Returns a tokenizer shared by all compactors with the same configuration and the same {@link KeyTransformer} instance.
+     *
+     * @param flattenMode    a {@link FlattenMode}
+     * @param separator      the separator within a key
+     * @param leftBracket    the left bracket within a key
+     * @param rightBracket   the right bracket within a key
+     * @param keyTransformer a {@link KeyTransformer}, or null
+     * @return a shared tokenizer
+     */
+    public static KeyPathTokenizer shared(FlattenMode flattenMode, char separator, char leftBracket, char rightBracket, KeyTransformer keyTransformer) {
+        if (keyTransformer == null) {
+            return shared(flattenMode, separator, leftBracket, rightBracket);
+        }
+
+        String config = flattenMode.name() + separator + leftBracket + rightBracket;
+        synchronized (SHARED_TRANSFORMING) {
+            Map<String, WeakReference<KeyPathTokenizer>> byConfig = SHARED_TRANSFORMING.computeIfAbsent(keyTransformer, k -> new HashMap<>());
+            WeakReference<KeyPathTokenizer> reference = byConfig.get(config);
+            KeyPathTokenizer tokenizer = reference != null ? reference.get() : null;
+            if (tokenizer == null) {
+                tokenizer = new KeyPathTokenizer(flattenMode, separator, leftBracket, rightBracket, keyTransformer);
+                byConfig.put(config, new WeakReference<>(tokenizer));
+            }
+            return tokenizer;
+        }
+    }
+
+    private final boolean mongo;
+    private final char separator;
+    private final char leftBracket;
+    private final char rightBracket;
+    private final KeyTransformer keyTransformer;
+    private final LRUMap<String, KeyPath> cache;
+
+    public KeyPathTokenizer(FlattenMode flattenMode, char separator, char leftBracket, char rightBracket, KeyTransformer keyTransformer) {
+        this(flattenMode, separator, leftBracket, rightBracket, keyTransformer, DEFAULT_CACHE_SIZE);
+    }
+
+    public KeyPathTokenizer(FlattenMode flattenMode, char separator, char leftBracket, char rightBracket, KeyTransformer keyTransformer, int cacheSize) {
+        this.mongo = notNull(flattenMode) == FlattenMode.MONGO;
+        this.separator = separator;
+        this.leftBracket = leftBracket;
+        this.rightBracket = rightBracket;
+        this.keyTransformer = keyTransformer;
+        this.cache = cacheSize > 0 ? new LRUMap<>(Math.min(16, cacheSize), cacheSize) : null;
+    }
+
+    /**
+     * Returns the parts of given flattened key, from the cache if the key has been parsed before.
+     *
+     * @param key a flattened key
+     * @return the {@link KeyPath} of the key
+     */
+    public KeyPath tokenize(String key) {
+        if (cache == null) {
+            return parse(key);
+        }
+        KeyPath path = cache.get(key);
+        if (path == null) {
+            path = parse(key);
+            cache.put(key, path);
+        }
+        return path;
+    }
+
+    private KeyPath parse(String key) {
+        List<Object> parts = new ArrayList<>();
+        int length = key.length();
+        int i = 0;
+
+        while (i < length) {
+            if (mongo) {
+                if (key.charAt(i) == separator) {
+                    i++;
+                    continue;
+                }
+                int end = i;
+                while (end < length && key.charAt(end) != separator) {
+                    end++;
+                }
+                parts.add(mongoPart(key, i, end));
+                i = end;
+                continue;
+            }
+
+            char c = key.charAt(i);
+            if (c == leftBracket) {
+                int end = matchArrayIndex(key, i);
+                if (end > 0) {
+                    parts.add(parseIndex(key, i + 1, end - 1));
+                    i = end;
+                    continue;
+                }
+                end = matchComplexKey(key, i);
+                if (end > 0) {
+                    parts.add(transform(complexKeyContent(key, i, end)));
+                    i = end;
+                    continue;
+                }
+                i++;
+            } else if (c == separator || c == rightBracket) {
+                i++;
+            } else {
+                int end = i;
+                while (end < length && !isReserved(key.charAt(end))) {
+                    end++;
+                }
+                parts.add(transform(key.substring(i, end)));
+                i = end;
+            }
+        }
+
+        return new KeyPath(parts.toArray());
+    }
+
+    private Object mongoPart(String key, int from, int to) {
+        if (isDigits(key, from, to)) {
+            return parseIndex(key, from, to);
+        }
+        if (key.charAt(from) == leftBracket && matchArrayIndex(key, from) == to) {
+            return parseIndex(key, from + 1, to - 1);
+        }
+        if (key.charAt(from) == leftBracket && matchComplexKey(key, from) == to) {
+            return transform(complexKeyContent(key, from, to));
+        }
+        return transform(key.substring(from, to));
+    }
+
+    private boolean isReserved(char c) {
+        return c == separator || c == leftBracket || c == rightBracket;
+    }
+
+    /**
+     * Matches L\s*\d+\s*R from the left bracket at given position, returns the end of match or -1.
+     */
+    private int matchArrayIndex(String key, int from) {
+        int length = key.length();
+        int i = skipWhitespaces(key, from + 1);
+        int digits = i;
+        while (i < length && isDigit(key.charAt(i))) {
+            i++;
+        }
+        if (i == digits) {
+            return -1;
+        }
+        i = skipWhitespaces(key, i);
+        return i < length && key.charAt(i) == rightBracket ? i + 1 : -1;
+    }
+
+    /**
+     * Matches L\s*".+?"\s*R from the left bracket at given position, returns the end of match or -1.
+     */
+    private int matchComplexKey(String key, int from) {
+        int length = key.length();
+        int quote = skipWhitespaces(key, from + 1);
+        if (quote >= length || key.charAt(quote) != '"') {
+            return -1;
+        }
+        for (int j = quote + 2; j < length; j++) {
+            if (isLineTerminator(key.charAt(j - 1))) {
+                return -1;
+            }
+            if (key.charAt(j) == '"') {
+                int i = skipWhitespaces(key, j + 1);
+                if (i < length && key.charAt(i) == rightBracket) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String complexKeyContent(String key, int from, int to) {
+        return key.substring(key.indexOf('"', from) + 1, key.lastIndexOf('"', to - 1));
+    }
+
+    private static Integer parseIndex(String key, int from, int to) {
+        int start = skipWhitespaces(key, from);
+        int end = to;
+        while (end > start && isWhitespace(key.charAt(end - 1))) {
+            end--;
+        }
+        return Integer.valueOf(key.substring(start, end));
+    }
+
+    private String transform(String keyPart) {
+        return keyTransformer != null ? keyTransformer.transform(keyPart) : keyPart;
+    }
+
+    private static int skipWhitespaces(String key, int from) {
+        int i = from;
+        while (i < key.length() && isWhitespace(key.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigits(String key, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (!isDigit(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // same as regex \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // line terminators which regex . does not match
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,48 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import com.infilos.relax.JsonCompactor;
+import com.infilos.relax.JsonFlattener;
+import com.infilos.relax.JsonStreamCompactor;
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactorConfigTest extends Assert {
+
+    @Test
+    public void testImmutable() {
+        CompactorConfig config = CompactorConfig.DEFAULT.withSeparator('_');
+
+        assertEquals('.', CompactorConfig.DEFAULT.getSeparator());
+        assertEquals('_', config.getSeparator());
+        assertSame(CompactorConfig.DEFAULT.getTokenizer(), CompactorConfig.DEFAULT.withPrintMode(PrintMode.PRETTY).getTokenizer());
+        assertNotSame(CompactorConfig.DEFAULT.getTokenizer(), config.getTokenizer());
+    }
+
+    @Test
+    public void testSameAsFluentSetters() throws IOException {
+        String json = Resource.readAsString("test.json");
+        String flattened = new JsonFlattener(json).withSeparator('_').withLeftAndRightBrackets('{', '}').flatten();
+        CompactorConfig config = CompactorConfig.DEFAULT
+            .withSeparator('_')
+            .withLeftAndRightBrackets('{', '}')
+            .withPrintMode(PrintMode.PRETTY);
+
+        String expected = new JsonCompactor(flattened)
+            .withSeparator('_')
+            .withLeftAndRightBrackets('{', '}')
+            .withPrintMode(PrintMode.PRETTY)
+            .compact();
+
+        assertEquals(expected, JsonCompactor.compact(flattened, config));
+        assertEquals(expected, JsonCompactor.compact(flattened, config));
+
+        StringWriter out = new StringWriter();
+        new JsonStreamCompactor(config).compactTo(new StringReader(flattened), out);
+        assertEquals(expected, out.toString());
+    }
+}
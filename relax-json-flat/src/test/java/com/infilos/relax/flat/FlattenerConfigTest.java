@@ -0,0 +1,101 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.infilos.relax.JsonFlattener;
+import com.infilos.relax.JsonStreamFlattener;
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FlattenerConfigTest extends Assert {
+
+    @Test
+    public void testImmutable() {
+        FlattenerConfig config = FlattenerConfig.DEFAULT.withSeparator('_');
+
+        assertEquals('.', FlattenerConfig.DEFAULT.getSeparator());
+        assertEquals('_', config.getSeparator());
+        assertNotSame(config, config.withFlattenMode(FlattenMode.MONGO));
+        assertEquals(FlattenMode.NORMAL, config.getFlattenMode());
+        assertFalse(config.ignoreReservedCharacters() == config);
+        assertFalse(config.isIgnoreReservedCharacters());
+    }
+
+    @Test
+    public void testValidation() {
+        try {
+            FlattenerConfig.DEFAULT.withSeparator('[');
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Separator([) is already used in brackets", e.getMessage());
+        }
+        try {
+            FlattenerConfig.DEFAULT.withLeftAndRightBrackets('.', ']');
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Left bracket contains illegal character(.)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSameAsFluentSetters() throws IOException {
+        String json = Resource.readAsString("test.json");
+        FlattenerConfig config = FlattenerConfig.DEFAULT
+            .withFlattenMode(FlattenMode.KEEP_ARRAYS)
+            .withSeparator('_')
+            .withLeftAndRightBrackets('{', '}')
+            .withKeyTransformer(String::toUpperCase);
+
+        String expected = new JsonFlattener(json)
+            .withFlattenMode(FlattenMode.KEEP_ARRAYS)
+            .withSeparator('_')
+            .withLeftAndRightBrackets('{', '}')
+            .withKeyTransformer(String::toUpperCase)
+            .flatten();
+
+        assertEquals(expected, JsonFlattener.flatten(json, config));
+        assertEquals(expected, JsonFlattener.flatten(json, config));
+
+        Map<String, Object> streamed = new LinkedHashMap<>();
+        new JsonStreamFlattener(config).flattenTo(new java.io.StringReader(json), streamed::put);
+        assertEquals(JsonFlattener.flattenAsMap(json, config), streamed);
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        FlattenerConfig config = FlattenerConfig.DEFAULT.withFlattenMode(FlattenMode.KEEP_ARRAYS);
+        List<String> jsons = new ArrayList<>();
+        for (String resource : new String[]{"test.json", "test2.json", "test3.json", "test4.json", "test5.json", "test6.json"}) {
+            jsons.add(Resource.readAsString(resource));
+        }
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (String json : jsons) {
+            expected.add(new JsonFlattener(json).withFlattenMode(FlattenMode.KEEP_ARRAYS).flattenAsMap());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 50; round++) {
+                        for (int i = 0; i < jsons.size(); i++) {
+                            if (!expected.get(i).equals(JsonFlattener.flattenAsMap(jsons.get(i), config))) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.infilos.relax.flat;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import com.infilos.relax.*;
 import com.infilos.utils.Resource;
@@ -479,6 +480,33 @@ public class JsonFlattenerTest extends Assert {
         assertEquals(expectedJson, flattened);
     }
 
+    @Test
+    public void testKeyPrefixAcrossLevels() {
+        String json = "{\"a\":{\"b.c\":{\"d\":1,\"e\":[]},\"f\":[1,{\"g\":2}]},\"h\":[[3],{}],\"i\":4}";
+
+        assertEquals(
+            "{\"a[\\\"b.c\\\"].d\":1,\"a[\\\"b.c\\\"].e\":[],\"a.f[0]\":1,\"a.f[1].g\":2,\"h[0][0]\":3,\"h[1]\":{},\"i\":4}",
+            JsonFlattener.flatten(json));
+        assertEquals(
+            "{\"a_f_0\":1,\"a_f_1_g\":2,\"h_0_0\":3,\"h_1\":{},\"i\":4}",
+            new JsonFlattener("{\"a\":{\"f\":[1,{\"g\":2}]},\"h\":[[3],{}],\"i\":4}")
+                .withFlattenMode(FlattenMode.MONGO).withSeparator('_').flatten());
+    }
+
+    @Test
+    public void testKeyTransformerOncePerKey() {
+        String json = "{\"a\":{\"b\":{\"c\":1,\"d\":2,\"e\":3}}}";
+        List<String> transformed = new ArrayList<>();
+
+        Map<String, Object> flattened = new JsonFlattener(json).withKeyTransformer(key -> {
+            transformed.add(key);
+            return key.toUpperCase();
+        }).flattenAsMap();
+
+        assertEquals(Arrays.asList("A.B.C", "A.B.D", "A.B.E"), new ArrayList<>(flattened.keySet()));
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), transformed);
+    }
+
     @Test
     public void testWithIgnoreReservedCharacters() {
         String json = "{\"matrix\":{\"agent.smith\":\"1999\"}}";
@@ -514,4 +542,65 @@ public class JsonFlattenerTest extends Assert {
            put(k, v); 
         }};
     }
+
+    @Test
+    public void testFlattenInParallel() throws IOException {
+        for (String resource : Arrays.asList("test.json", "test2.json", "test4.json", "test5.json", "test6.json",
+            "test_keep_primitive_arrays.json", "test_long_decimal.json")) {
+            String json = Resource.readAsString(resource);
+            for (FlattenMode mode : Arrays.asList(FlattenMode.NORMAL, FlattenMode.KEEP_ARRAYS, FlattenMode.KEEP_PRIMITIVE_ARRAYS)) {
+                FlattenerConfig config = FlattenerConfig.DEFAULT.withFlattenMode(mode);
+                assertEquals(resource + " " + mode,
+                    JsonFlattener.flatten(json, config),
+                    JsonFlattener.flatten(json, config.withParallelism(1)));
+            }
+        }
+    }
+
+    @Test
+    public void testFlattenLargeRootArrayInParallel() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"tags\":[\"t").append(i).append("\"],\"empty\":{}}");
+        }
+        json.append(']');
+
+        Map<String, Object> sequential = JsonFlattener.flattenAsMap(json.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<String, Object> parallel = new JsonFlattener(json.toString()).withParallelism(pool, 64).flattenAsMap();
+            assertEquals(new ArrayList<>(sequential.keySet()), new ArrayList<>(parallel.keySet()));
+            assertEquals(sequential, parallel);
+            assertEquals(999L, ((Number) parallel.get("[999].id")).longValue());
+            assertEquals("t999", parallel.get("[999].tags[0]"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFlattenInParallelKeepsOverrides() {
+        String json = "{\"a\":{\"b\":1},\"c\":2,\"a.b\":3}";
+        FlattenerConfig config = FlattenerConfig.DEFAULT.ignoreReservedCharacters();
+
+        assertEquals("{\"a.b\":3,\"c\":2}", JsonFlattener.flatten(json, config));
+        assertEquals("{\"a.b\":3,\"c\":2}", JsonFlattener.flatten(json, config.withParallelism(1)));
+    }
+
+    @Test
+    public void testFlattenInParallelException() {
+        String json = "{\"abc\":{\"def\":123},\"ghi\":{\"de.f\":123}}";
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            JsonFlattener.flatten(json, FlattenerConfig.DEFAULT.withFlattenMode(FlattenMode.MONGO).withParallelism(pool, 1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Key cannot contain separator(.) in FlattenMode.MONGO", e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
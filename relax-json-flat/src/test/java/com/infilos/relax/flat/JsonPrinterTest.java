@@ -0,0 +1,55 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonPrinterTest extends Assert {
+
+    @Test
+    public void testPrintMinimal() {
+        assertEquals("{\"a b\":[1,2],\"c\":{\"d\":\" e \"}}",
+            JsonPrinter.printMinimal(" { \"a b\" : [ 1, 2 ],\n\t\"c\" : { \"d\" : \" e \" } } "));
+    }
+
+    @Test
+    public void testPrintPretty() {
+        assertEquals("{\n  \"a\" : [ 1, 2 ],\n  \"b\" : {\n    \"c\" : null\n  }\n}",
+            JsonPrinter.printPretty("{\"a\":[1,2],\"b\":{\"c\":null}}"));
+        assertEquals("{\n\t\"a\" : 1\n}", JsonPrinter.printPretty("{\"a\":1}", "\t"));
+    }
+
+    @Test
+    public void testEscapedQuotes() {
+        String json = "{\"a\\\"{[b\":\"c\\\\\",\"d\":\"\\\"], e\"}";
+
+        assertEquals(json, JsonPrinter.printMinimal(json));
+        assertEquals("{\n  \"a\\\"{[b\" : \"c\\\\\",\n  \"d\" : \"\\\"], e\"\n}", JsonPrinter.printPretty(json));
+    }
+
+    @Test
+    public void testReaderToWriter() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        String element = Resource.readAsString("test.json");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append(element);
+        }
+        json.append(']');
+
+        StringWriter minimal = new StringWriter();
+        JsonPrinter.printMinimal(new StringReader(json.toString()), minimal);
+        assertEquals(JsonPrinter.printMinimal(json.toString()), minimal.toString());
+
+        StringWriter pretty = new StringWriter();
+        JsonPrinter.printPretty(new StringReader(json.toString()), pretty);
+        assertEquals(JsonPrinter.printPretty(json.toString()), pretty.toString());
+
+        StringBuilder sb = new StringBuilder("prefix:");
+        JsonPrinter.printPretty(json, sb, "  ");
+        assertEquals("prefix:" + pretty, sb.toString());
+    }
+}
@@ -0,0 +1,135 @@
+package com.infilos.relax.flat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import com.infilos.relax.*;
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+public class JsonStreamCompactorTest extends Assert {
+
+    private static final String[] RESOURCES = {
+        "test.json", "test2.json", "test3.json", "test4.json", "test5.json", "test6.json",
+        "test_keep_primitive_arrays.json", "test_long_decimal.json"
+    };
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    private Map<String, Object> toMap(String json) throws IOException {
+        return mapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {
+        });
+    }
+
+    private String compactMap(JsonStreamCompactor compactor, Map<String, ?> flattened) {
+        StringWriter out = new StringWriter();
+        compactor.compactTo(flattened, out);
+        return out.toString();
+    }
+
+    private String compactString(JsonStreamCompactor compactor, String flattened) {
+        StringWriter out = new StringWriter();
+        compactor.compactTo(new StringReader(flattened), out);
+        return out.toString();
+    }
+
+    private String compactEntries(JsonStreamCompactor compactor, Map<String, ?> flattened) {
+        StringWriter out = new StringWriter();
+        compactor.compactTo(flattened.entrySet().iterator(), out);
+        return out.toString();
+    }
+
+    @Test
+    public void testCompactResources() throws IOException {
+        for (String resource : RESOURCES) {
+            String json = Resource.readAsString(resource);
+            for (FlattenMode mode : new FlattenMode[]{FlattenMode.NORMAL, FlattenMode.KEEP_ARRAYS, FlattenMode.KEEP_PRIMITIVE_ARRAYS}) {
+                String flattened = new JsonFlattener(json).withFlattenMode(mode).flatten();
+                Map<String, Object> flattenedMap = new JsonFlattener(json).withFlattenMode(mode).flattenAsMap();
+                String expected = new JsonCompactor(flattened).withFlattenMode(mode).compact();
+
+                JsonStreamCompactor compactor = new JsonStreamCompactor().withFlattenMode(mode);
+                assertEquals(expected, compactString(compactor, flattened));
+                assertEquals(expected, compactMap(compactor, flattenedMap));
+                assertEquals(expected, compactEntries(compactor, flattenedMap));
+            }
+        }
+    }
+
+    @Test
+    public void testCompactMongo() throws IOException {
+        String json = Resource.readAsString("test_mongo_flattened.json");
+        JsonStreamCompactor compactor = new JsonStreamCompactor().withFlattenMode(FlattenMode.MONGO);
+
+        assertEquals(new JsonCompactor(json).withFlattenMode(FlattenMode.MONGO).compact(),
+            compactString(compactor, json));
+    }
+
+    @Test
+    public void testCompactOutOfOrderKeys() throws IOException {
+        String[] jsons = {
+            "{\"a.b\":1,\"a.c\":null,\"a.d[1]\":true,\"a.d[0]\":false,\"a.d[2].sss\":777,\"a.d[2].vvv\":888,\"e\":\"f\",\"g\":2.3}",
+            "{\"[1][0]\":2,\"[0]\":1,\"[1][1]\":3,\"[2]\":4,\"[3].abc\":5}",
+            "{\"a.b\":1,\"c\":2,\"a.d\":3,\"a.e[1].f\":4,\"c2\":5,\"a.e[0]\":6}",
+            "{\"[\\\" ].$f\\\"].abc.def[0]\":123}",
+            "{\"[1][1]\":\"B\",\"[0][0]\":\"A\"}",
+            "{}"
+        };
+        JsonStreamCompactor compactor = new JsonStreamCompactor();
+        for (String json : jsons) {
+            assertEquals(JsonCompactor.compact(json), compactMap(compactor, toMap(json)));
+        }
+
+        assertEquals(JsonCompactor.compact(jsons[0]), compactString(compactor, jsons[0]));
+        assertEquals(JsonCompactor.compact(jsons[1]), compactString(compactor, jsons[1]));
+        try {
+            compactString(compactor, jsons[2]);
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("CompactJsonStream, key(a) arrives after its object was written", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCompactRoot() {
+        JsonStreamCompactor compactor = new JsonStreamCompactor();
+        for (String json : new String[]{"123", "\"abc\"", "true", "null", "[1,2,3]", "[[{\"abc.def\":123}]]"}) {
+            assertEquals(JsonCompactor.compact(json), compactString(compactor, json));
+        }
+    }
+
+    @Test
+    public void testCompactWithOptions() {
+        String json = "{\"abc\":{\"A.\":[123,\"def\"],\"x y\":{\"z\":true}}}";
+
+        String flattened = new JsonFlattener(json).withSeparator('_').withLeftAndRightBrackets('{', '}').flatten();
+        assertEquals(json, compactString(
+            new JsonStreamCompactor().withSeparator('_').withLeftAndRightBrackets('{', '}'), flattened));
+
+        flattened = new JsonFlattener(json).withFlattenMode(FlattenMode.KEEP_ARRAYS).flatten();
+        assertEquals("{\"ABC\":{\"A.\":[123,\"def\"],\"X Y\":{\"Z\":true}}}", compactString(
+            new JsonStreamCompactor().withFlattenMode(FlattenMode.KEEP_ARRAYS).withKeyTransformer(String::toUpperCase), flattened));
+    }
+
+    @Test
+    public void testPrintMode() throws IOException {
+        String src = JsonFlattener.flatten(Resource.readAsString("test.json"));
+
+        String json = compactString(new JsonStreamCompactor().withPrintMode(PrintMode.PRETTY), src);
+        assertEquals(new JsonCompactor(src).withPrintMode(PrintMode.PRETTY).compact(), json);
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        String json = Resource.readAsString("test.json");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonStreamCompactor.compact(new ByteArrayInputStream(JsonFlattener.flatten(json).getBytes(StandardCharsets.UTF_8)), out);
+
+        assertEquals(mapper.readTree(json), mapper.readTree(out.toByteArray()));
+    }
+}
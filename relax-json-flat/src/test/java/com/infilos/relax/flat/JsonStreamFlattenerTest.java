@@ -0,0 +1,180 @@
+package com.infilos.relax.flat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.infilos.relax.*;
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonStreamFlattenerTest extends Assert {
+
+    private static final String[] RESOURCES = {
+        "test.json", "test2.json", "test3.json", "test4.json", "test5.json", "test6.json",
+        "test_keep_primitive_arrays.json", "test_long_decimal.json", "test_mongo.json"
+    };
+
+    private Map<String, Object> streamAsMap(JsonStreamFlattener flattener, String json) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        flattener.flattenTo(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), map::put);
+        return map;
+    }
+
+    private void assertSameEntries(Map<String, Object> expected, Map<String, Object> actual) {
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+    }
+
+    @Test
+    public void testFlattenResources() throws IOException {
+        for (String resource : RESOURCES) {
+            String json = Resource.readAsString(resource);
+            for (FlattenMode mode : FlattenMode.values()) {
+                if (mode == FlattenMode.MONGO && !resource.startsWith("test_mongo")) {
+                    continue;
+                }
+                assertSameEntries(
+                    new JsonFlattener(json).withFlattenMode(mode).flattenAsMap(),
+                    streamAsMap(new JsonStreamFlattener().withFlattenMode(mode), json));
+            }
+        }
+    }
+
+    @Test
+    public void testFlattenEdgeCases() {
+        String[] jsons = {
+            "{}", "[]", "null", "123", "\"abc\"", "true", "[[{\"abc\":{\"def\":123}}]]",
+            "{\"no\":\"1\",\"marks\":[{}],\"empty\":[],\"nested\":[[],[[1]],{}]}",
+            "[{\"a.a.[\":1},2,{\"c\":[3,4]}]", "[1,2,{\"a\":[3,{\"b\":4}]},5]"
+        };
+        for (String json : jsons) {
+            for (FlattenMode mode : new FlattenMode[]{FlattenMode.NORMAL, FlattenMode.KEEP_ARRAYS, FlattenMode.KEEP_PRIMITIVE_ARRAYS}) {
+                assertSameEntries(
+                    new JsonFlattener(json).withFlattenMode(mode).flattenAsMap(),
+                    streamAsMap(new JsonStreamFlattener().withFlattenMode(mode), json));
+            }
+        }
+    }
+
+    @Test
+    public void testFlattenWithOptions() {
+        String json = "{\"abc\":{\"A.\":[123,\"def\"],\"x y\":{\"z\":true}}}";
+
+        assertSameEntries(
+            new JsonFlattener(json).withSeparator('_').withLeftAndRightBrackets('{', '}').flattenAsMap(),
+            streamAsMap(new JsonStreamFlattener().withSeparator('_').withLeftAndRightBrackets('{', '}'), json));
+        assertSameEntries(
+            new JsonFlattener(json).withKeyTransformer(key -> key.replace('.', '_')).flattenAsMap(),
+            streamAsMap(new JsonStreamFlattener().withKeyTransformer(key -> key.replace('.', '_')), json));
+        assertSameEntries(
+            new JsonFlattener(json).withStringEscapePolicy(StringEscapePolicy.ALL).flattenAsMap(),
+            streamAsMap(new JsonStreamFlattener().withStringEscapePolicy(StringEscapePolicy.ALL), json));
+        assertSameEntries(
+            new JsonFlattener(json).ignoreReservedCharacters().flattenAsMap(),
+            streamAsMap(new JsonStreamFlattener().ignoreReservedCharacters(), json));
+    }
+
+    @Test
+    public void testFlattenModeMongodbException() {
+        try {
+            streamAsMap(new JsonStreamFlattener().withFlattenMode(FlattenMode.MONGO), "{\"abc\":{\"de.f\":123}}");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Key cannot contain separator(.) in FlattenMode.MONGO", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testIteratorClosesParserNotSource() {
+        AtomicBoolean sourceClosed = new AtomicBoolean();
+        StringReader source = new StringReader("{\"a\":1,\"b\":2}") {
+            @Override
+            public void close() {
+                sourceClosed.set(true);
+                super.close();
+            }
+        };
+
+        try (JsonStreamFlattener.EntryIterator entries = new JsonStreamFlattener().iterator(source)) {
+            assertEquals("a", entries.next().getKey());
+        }
+        assertFalse(sourceClosed.get());
+
+        JsonStreamFlattener.EntryIterator entries = new JsonStreamFlattener().iterator(new StringReader("[1]"));
+        assertEquals("[0]", entries.next().getKey());
+        assertFalse(entries.hasNext());
+    }
+
+    @Test
+    public void testIteratorClosesParserOnTruncatedInput() {
+        InputStream source = new ByteArrayInputStream("{\"a\":[1,2".getBytes(StandardCharsets.UTF_8));
+        JsonStreamFlattener.EntryIterator entries = new JsonStreamFlattener().iterator(source);
+        assertEquals("a[0]", entries.next().getKey());
+        assertEquals("a[1]", entries.next().getKey());
+        try {
+            entries.hasNext();
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("FlattenJsonStream"));
+        }
+        // a closed parser ends the iteration instead of failing again
+        assertFalse(entries.hasNext());
+
+        // a source failing unchecked after its data closes the parser too
+        InputStream failing = new ByteArrayInputStream("[1,2,".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (read < 0) {
+                    throw new IllegalStateException("source failed");
+                }
+                return read;
+            }
+        };
+        entries = new JsonStreamFlattener().iterator(failing);
+        assertEquals("[0]", entries.next().getKey());
+        assertEquals("[1]", entries.next().getKey());
+        try {
+            entries.hasNext();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("source failed", e.getMessage());
+        }
+        assertFalse(entries.hasNext());
+    }
+
+    @Test
+    public void testIterator() {
+        Iterator<Entry<String, Object>> entries =
+            new JsonStreamFlattener().iterator(new StringReader("{\"a\":{\"b\":1,\"c\":[\"x\",null]},\"d\":2.3}"));
+
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        while (entries.hasNext()) {
+            Entry<String, Object> entry = entries.next();
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+        }
+
+        assertEquals(Arrays.asList("a.b", "a.c[0]", "a.c[1]", "d"), keys);
+        assertEquals(Arrays.asList(1, "x", null, 2.3), values);
+        assertFalse(entries.hasNext());
+    }
+
+    @Test
+    public void testMalformedInput() {
+        try {
+            streamAsMap(new JsonStreamFlattener(), "{\"a\":[1,2");
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("FlattenJsonStream"));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.infilos.relax.flat;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonStringEscaperTest extends Assert {
+
+    private static Map<CharSequence, CharSequence> lookup(boolean escapeSlash) {
+        Map<CharSequence, CharSequence> map = new HashMap<>();
+        map.put("\"", "\\\"");
+        map.put("\\", "\\\\");
+        if (escapeSlash) {
+            map.put("/", "\\/");
+        }
+        return unmodifiableMap(map);
+    }
+
+    // the commons-text translators the policies were built from
+    private static final Map<StringEscapePolicy, CharSequenceTranslator> AGGREGATES = new EnumMap<>(StringEscapePolicy.class);
+
+    static {
+        AGGREGATES.put(StringEscapePolicy.ALL, StringEscapeUtils.ESCAPE_JSON);
+        AGGREGATES.put(StringEscapePolicy.ALL_BUT_SLASH, new AggregateTranslator(new LookupTranslator(lookup(false)),
+            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE), JavaUnicodeEscaper.outsideOf(32, 0x7f)));
+        AGGREGATES.put(StringEscapePolicy.ALL_BUT_UNICODE, new AggregateTranslator(new LookupTranslator(lookup(true)),
+            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE)));
+        AGGREGATES.put(StringEscapePolicy.ALL_BUT_SLASH_AND_UNICODE, new AggregateTranslator(new LookupTranslator(lookup(false)),
+            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE)));
+        AGGREGATES.put(StringEscapePolicy.DEFAULT, AGGREGATES.get(StringEscapePolicy.ALL_BUT_SLASH_AND_UNICODE));
+    }
+
+    private static final String[] SAMPLES = {
+        "", "abc", "a\"b", "\\", "a/b", "\b\t\n\f\r", "\u0000\u0001\u001f", "~\u007f\u0080",
+        "中文", "😀", "\ud83d", "x\ude00y", "{\"a.b\":[\"c\"]}"
+    };
+
+    @Test
+    public void testSameAsAggregateTranslators() throws IOException {
+        Random random = new Random(42);
+        List<String> inputs = new ArrayList<>(Arrays.asList(SAMPLES));
+        for (int i = 0; i < 500; i++) {
+            char[] chars = new char[random.nextInt(20)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = random.nextInt(4) == 0 ? (char) random.nextInt(0x10000) : (char) random.nextInt(0x90);
+            }
+            inputs.add(new String(chars));
+        }
+
+        for (StringEscapePolicy policy : StringEscapePolicy.values()) {
+            CharSequenceTranslator expected = AGGREGATES.get(policy);
+            CharSequenceTranslator translator = policy.getTranslator();
+            for (String input : inputs) {
+                String escaped = expected.translate(input);
+                assertEquals(policy + ": " + input, escaped, translator.translate(input));
+                assertEquals(escaped, JsonStringEscaper.translateToString(translator, input));
+
+                StringWriter writer = new StringWriter();
+                translator.translate(input, writer);
+                assertEquals(escaped, writer.toString());
+
+                StringBuilder sb = new StringBuilder("#");
+                JsonStringEscaper.translateTo(translator, input, sb);
+                assertEquals("#" + escaped, sb.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testUnchangedInput() {
+        String input = "nothing to escape";
+
+        assertSame(input, JsonStringEscaper.translateToString(StringEscapePolicy.DEFAULT.getTranslator(), input));
+        assertSame(input, JsonStringEscaper.withUnicode(true, (char) 0x7e).escape(input));
+        assertNull(JsonStringEscaper.withoutUnicode(false).escape(null));
+    }
+
+    @Test
+    public void testCustomTranslator() {
+        StringBuilder sb = new StringBuilder();
+        JsonStringEscaper.translateTo(StringEscapeUtils.ESCAPE_JSON, "a/b", sb);
+
+        assertEquals("a\\/b", sb.toString());
+        assertEquals("a\\/b", JsonStringEscaper.translateToString(StringEscapeUtils.ESCAPE_JSON, "a/b"));
+    }
+}
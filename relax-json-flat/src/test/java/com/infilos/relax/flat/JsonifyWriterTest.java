@@ -0,0 +1,67 @@
+package com.infilos.relax.flat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infilos.relax.JsonFlattener;
+import com.infilos.utils.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonifyWriterTest extends Assert {
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    private static final String[] RESOURCES = {
+        "test.json", "test2.json", "test3.json", "test4.json", "test5.json", "test6.json",
+        "test_keep_primitive_arrays.json", "test_long_decimal.json"
+    };
+
+    @Test
+    public void testPrettySameAsPrinter() throws IOException {
+        for (String resource : RESOURCES) {
+            String json = Resource.readAsString(resource);
+            for (FlattenMode mode : new FlattenMode[]{FlattenMode.NORMAL, FlattenMode.KEEP_ARRAYS, FlattenMode.KEEP_PRIMITIVE_ARRAYS}) {
+                JsonifyLinkedHashMap<String, Object> flattened =
+                    (JsonifyLinkedHashMap<String, Object>) new JsonFlattener(json).withFlattenMode(mode).flattenAsMap();
+
+                StringWriter out = new StringWriter();
+                flattened.writeTo(out, PrintMode.PRETTY);
+                assertEquals(mapper.readTree(flattened.toString()), mapper.readTree(out.toString()));
+                assertEquals(JsonPrinter.printPretty(flattened.toString()), out.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testNestedCollections() {
+        JsonifyLinkedHashMap<String, Object> map = new JsonifyLinkedHashMap<>();
+        map.setTranslator(StringEscapePolicy.ALL_BUT_UNICODE.getTranslator());
+        map.put("a/b", Arrays.asList("c/d", Collections.singletonMap("e", null)));
+        map.put("f", new JsonifyArrayList<>(Arrays.asList(1, 2.5, true)));
+        map.put("g", new LinkedHashMap<>());
+
+        assertEquals("{\"a\\/b\":[\"c\\/d\",{\"e\":null}],\"f\":[1,2.5,true],\"g\":{}}", map.toString());
+
+        StringBuilder sb = new StringBuilder();
+        map.writeTo(sb, PrintMode.PRETTY);
+        assertEquals(JsonPrinter.printPretty(map.toString()), sb.toString());
+        assertEquals("{\n  \"a\\/b\" : [ \"c\\/d\", {\n    \"e\" : null\n  } ],\n  \"f\" : [ 1, 2.5, true ],\n  \"g\" : {\n    \n  }\n}", sb.toString());
+    }
+
+    @Test
+    public void testFlattenTo() throws IOException {
+        String json = Resource.readAsString("test.json");
+        for (PrintMode printMode : PrintMode.values()) {
+            StringWriter out = new StringWriter();
+            new JsonFlattener(json).withPrintMode(printMode).flattenTo(out);
+            assertEquals(new JsonFlattener(json).withPrintMode(printMode).flatten(), out.toString());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        new JsonFlattener("[1,[2,\"3\"]]").withFlattenMode(FlattenMode.KEEP_ARRAYS).flattenTo(sb);
+        assertEquals("[1,[2,\"3\"]]", sb.toString());
+    }
+}
@@ -0,0 +1,89 @@
+package com.infilos.relax.flat;
+
+import java.util.*;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeyPathTokenizerTest extends Assert {
+
+    private List<Object> parts(KeyPath path) {
+        List<Object> parts = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++) {
+            parts.add(path.part(i));
+        }
+        return parts;
+    }
+
+    private List<Object> tokenize(KeyPathTokenizer tokenizer, String key) {
+        return parts(tokenizer.tokenize(key));
+    }
+
+    @Test
+    public void testNormal() {
+        KeyPathTokenizer tokenizer = KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']');
+
+        assertEquals(Arrays.asList("a", "b"), tokenize(tokenizer, "a.b"));
+        assertEquals(Arrays.asList("a", "d", 1), tokenize(tokenizer, "a.d[1]"));
+        assertEquals(Arrays.asList(1, 0), tokenize(tokenizer, "[1][0]"));
+        assertEquals(Arrays.asList(12, "abc"), tokenize(tokenizer, "[ 12 ].abc"));
+        assertEquals(Arrays.asList("a.a.[", "b"), tokenize(tokenizer, "[\"a.a.[\"].b"));
+        assertEquals(Arrays.asList("\\", "$f\\\"\"", "abc", "def", 0), tokenize(tokenizer, "[\"\\\" ].$f\\\"\"].abc.def[0]"));
+        assertEquals(Arrays.asList(" \\\"abc", "def "), tokenize(tokenizer, "[\" \\\"abc\"].def "));
+        assertEquals(Arrays.asList("a", "b"), tokenize(tokenizer, "a..[b"));
+        assertEquals(Collections.emptyList(), tokenize(tokenizer, ""));
+    }
+
+    @Test
+    public void testBrackets() {
+        KeyPathTokenizer tokenizer = KeyPathTokenizer.shared(FlattenMode.NORMAL, '*', '{', '}');
+
+        assertEquals(Arrays.asList("abc", "A.", 1), tokenize(tokenizer, "abc{\"A.\"}{1}"));
+        assertEquals(Arrays.asList("abc", "def[0]"), tokenize(tokenizer, "abc*def[0]"));
+    }
+
+    @Test
+    public void testMongo() {
+        KeyPathTokenizer tokenizer = KeyPathTokenizer.shared(FlattenMode.MONGO, '.', '[', ']');
+
+        assertEquals(Arrays.asList("a", 0, "b"), tokenize(tokenizer, "a.0.b"));
+        assertEquals(Arrays.asList(0, "x1"), tokenize(tokenizer, ".0.x1"));
+        assertEquals(Arrays.asList("a[0]b", 2), tokenize(tokenizer, "a[0]b.[2]"));
+    }
+
+    @Test
+    public void testKeyTransformer() {
+        KeyPathTokenizer tokenizer = new KeyPathTokenizer(FlattenMode.NORMAL, '.', '[', ']', String::toUpperCase);
+
+        assertEquals(Arrays.asList("A", 0, "B.C"), tokenize(tokenizer, "a[0][\"b.c\"]"));
+    }
+
+    @Test
+    public void testCache() {
+        KeyPathTokenizer tokenizer = new KeyPathTokenizer(FlattenMode.NORMAL, '.', '[', ']', null, 1);
+
+        KeyPath ab = tokenizer.tokenize("a.b");
+        assertSame(ab, tokenizer.tokenize("a.b"));
+        // the least recently used key makes room for a new one
+        KeyPath ac = tokenizer.tokenize("a.c");
+        assertSame(ac, tokenizer.tokenize("a.c"));
+        assertNotSame(ab, tokenizer.tokenize("a.b"));
+        assertEquals(ab, tokenizer.tokenize("a.b"));
+        assertSame(KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']'), KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']'));
+    }
+
+    @Test
+    public void testSharedByKeyTransformer() {
+        KeyTransformer upperCase = String::toUpperCase;
+
+        assertSame(
+            KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']', upperCase),
+            KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']', upperCase));
+        assertNotSame(
+            KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']', upperCase),
+            KeyPathTokenizer.shared(FlattenMode.NORMAL, '.', '[', ']', String::toLowerCase));
+        assertSame(
+            CompactorConfig.DEFAULT.withKeyTransformer(upperCase).getTokenizer(),
+            CompactorConfig.DEFAULT.withSeparator('.').withKeyTransformer(upperCase).getTokenizer());
+    }
+}
@@ -1,32 +1,137 @@
 package com.infilos.relax;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.*;
+import com.infilos.relax.json.JsonBindings;
 import com.infilos.relax.json.JsonException;
 import com.infilos.relax.json.JsonFactory;
 import com.infilos.relax.json.JsonMappers;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * @author infilos on 2020-06-13.
+ * <p>
+ * A Json never mutates its node, so it is copied on write only: {@link #asJsonNode()} returns a deep copy for the caller to change,
+ * {@link #merge(Json)} copies the merged node only, and copies of a Json owning its node share that node.
+ * <p>
+ * A lazy Json, see {@link #lazy(String)}, keeps the original payload and parses it on the first structural access only,
+ * {@link #asString()} and {@link #asBytes()} return the original payload, except that {@link #asString()} of a JSON string payload
+ * returns its text like it does for any textual Json, and a String payload which is not valid JSON is written as the JSON string
+ * an eager Json reads it as.
  */
 
 public final class Json extends JsonMappers {
-    private final JsonNode jsonNode;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private volatile JsonNode jsonNode;
     private final ObjectMapper mapper;
+    private final boolean owned;
+    // the original String or byte[] of a lazy Json, null otherwise
+    private final Object payload;
+    // whether a String payload is valid JSON, scanned once on the first write
+    private volatile Boolean validPayload;
 
     public Json(ObjectMapper mapper, JsonNode node) {
+        this(mapper, node, false);
+    }
+
+    /**
+     * @param owned whether the node is referenced by this Json only, like a node just parsed, so that copies can share it
+     *              instead of cloning it. A node still referenced by the caller is not owned, and is cloned by {@link #copy()}.
+     */
+    public Json(ObjectMapper mapper, JsonNode node, boolean owned) {
+        this.mapper = mapper;
+        this.jsonNode = node;
+        this.owned = owned;
+        this.payload = null;
+    }
+
+    private Json(ObjectMapper mapper, Object payload, JsonNode node) {
         this.mapper = mapper;
         this.jsonNode = node;
+        this.owned = true;
+        this.payload = payload;
+    }
+
+    /**
+     * Returns a lazy Json of the payload, which is parsed by given mapper on the first structural access.
+     * Like {@link JsonFactory#from(String)}, a payload which is not valid JSON is read as a JSON string.
+     */
+    public static Json lazy(ObjectMapper mapper, String jsonString) {
+        return new Json(mapper, jsonString, null);
+    }
+
+    /**
+     * Returns a lazy Json of the UTF-8 payload, which is parsed by given mapper on the first structural access.
+     * Like {@link JsonFactory#from(byte[])}, a payload which is not valid JSON fails on that access.
+     * The payload is not copied, it must not be changed afterwards.
+     */
+    public static Json lazy(ObjectMapper mapper, byte[] jsonBytes) {
+        return new Json(mapper, jsonBytes, null);
+    }
+
+    /**
+     * Returns whether the node of this Json is available, which is false for a lazy Json until its first structural access.
+     */
+    public boolean isParsed() {
+        return jsonNode != null;
+    }
+
+    private JsonNode node() {
+        JsonNode node = jsonNode;
+        if (node == null) {
+            // parsing is idempotent, so racing threads at most parse twice
+            jsonNode = node = parsePayload();
+        }
+        return node;
+    }
+
+    private JsonNode parsePayload() {
+        if (payload instanceof String) {
+            if (!isValidPayload()) {
+                return TextNode.valueOf((String) payload);
+            }
+            try {
+                return mapper.readTree((String) payload);
+            } catch (Exception ex) {
+                return TextNode.valueOf((String) payload);
+            }
+        }
+        try {
+            return mapper.readTree((byte[]) payload);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromBytes", ex);
+        }
     }
 
     public String asString() {
+        if (payload instanceof String && !isStringLiteral()) {
+            return (String) payload;
+        }
+        if (payload instanceof byte[] && !isStringLiteral()) {
+            return new String((byte[]) payload, StandardCharsets.UTF_8);
+        }
+        JsonNode jsonNode = node();
         try {
             if (jsonNode.isTextual()) {
                 return jsonNode.asText();
@@ -37,7 +142,43 @@ public final class Json extends JsonMappers {
         }
     }
 
+    /**
+     * Returns whether the payload can be written as is, a String payload which is not valid JSON is written as a JSON string.
+     */
+    private boolean isValidPayload() {
+        if (!(payload instanceof String)) {
+            return payload != null;
+        }
+        Boolean valid = validPayload;
+        if (valid == null) {
+            validPayload = valid = isValidJson(mapper, (String) payload);
+        }
+        return valid;
+    }
+
+    /**
+     * Returns whether the payload starts like a JSON string, which is parsed into a textual node.
+     */
+    private boolean isStringLiteral() {
+        if (payload instanceof String) {
+            String text = (String) payload;
+            int i = 0;
+            while (i < text.length() && (Character.isWhitespace(text.charAt(i)) || text.charAt(i) == '\uFEFF')) {
+                i++;
+            }
+            return i < text.length() && (text.charAt(i) == '"' || text.charAt(i) == '\'');
+        }
+        byte[] bytes = (byte[]) payload;
+        // skips a UTF-8 BOM too
+        int i = (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) ? 3 : 0;
+        while (i < bytes.length && Character.isWhitespace(bytes[i])) {
+            i++;
+        }
+        return i < bytes.length && (bytes[i] == '"' || bytes[i] == '\'');
+    }
+
     public String asPrettyString() {
+        JsonNode jsonNode = node();
         try {
             if (jsonNode.isTextual()) {
                 return jsonNode.asText();
@@ -50,8 +191,7 @@ public final class Json extends JsonMappers {
 
     public Map<String, Object> asMap() {
         try {
-            return mapper.convertValue(jsonNode, new TypeReference<Map<String, Object>>() {
-            });
+            return JsonBindings.of(mapper).readerFor(MAP_TYPE).readValue(node());
         } catch (Exception ex) {
             throw JsonException.ofAction("WriteJsonToMap", ex);
         }
@@ -59,7 +199,7 @@ public final class Json extends JsonMappers {
 
     public <T> T asObject(Class<T> clazz) {
         try {
-            return mapper.convertValue(jsonNode, clazz);
+            return JsonBindings.of(mapper).readerFor(clazz).readValue(node());
         } catch (Exception ex) {
             throw JsonException.ofAction("WriteJsonToObject", ex);
         }
@@ -67,7 +207,7 @@ public final class Json extends JsonMappers {
 
     public <T> T asType(TypeReference<T> typeReference) {
         try {
-            return mapper.convertValue(jsonNode, typeReference);
+            return JsonBindings.of(mapper).readerFor(typeReference).readValue(node());
         } catch (Exception ex) {
             throw JsonException.ofAction("WriteJsonToTypeRefer", ex);
         }
@@ -75,35 +215,140 @@ public final class Json extends JsonMappers {
 
     public <T> T asType(JavaType javaType) {
         try {
-            return mapper.convertValue(jsonNode, javaType);
+            return JsonBindings.of(mapper).readerFor(javaType).readValue(node());
         } catch (Exception ex) {
             throw JsonException.ofAction("WriteJsonToJavaType", ex);
         }
     }
 
     public byte[] asBytes() {
+        if (payload instanceof byte[]) {
+            return ((byte[]) payload).clone();
+        }
+        if (payload instanceof String && isValidPayload()) {
+            return ((String) payload).getBytes(StandardCharsets.UTF_8);
+        }
         try {
-            return mapper.writeValueAsBytes(jsonNode);
+            return mapper.writeValueAsBytes(node());
         } catch (Exception ex) {
             throw JsonException.ofAction("WriteJsonToBytes", ex);
         }
     }
 
-    public JsonNode asJsonNode() {
-        return copy().jsonNode;
+    /**
+     * Writes the Smile binary format, which {@link JsonFactory#fromSmile(byte[])} reads back.
+     */
+    public byte[] asSmile() {
+        try {
+            return JsonMappers.smileMapper().writeValueAsBytes(node());
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteJsonToSmile", ex);
+        }
     }
 
-    public Json copy() {
+    /**
+     * Writes the CBOR binary format, which {@link JsonFactory#fromCbor(byte[])} reads back.
+     */
+    public byte[] asCbor() {
+        try {
+            return JsonMappers.cborMapper().writeValueAsBytes(node());
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteJsonToCbor", ex);
+        }
+    }
+
+    /**
+     * Writes the same characters as {@link #asString()} to the writer, which is neither flushed nor closed.
+     */
+    public void writeTo(Writer out) {
+        try {
+            if (payload != null || node().isTextual()) {
+                out.write(asString());
+                return;
+            }
+            mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, jsonNode);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteJsonToWriter", ex);
+        }
+    }
+
+    /**
+     * Writes the same bytes as {@link #asBytes()} to the stream with the byte based generator, the stream is not closed.
+     */
+    public void writeTo(OutputStream out) {
+        try {
+            if (payload instanceof byte[]) {
+                out.write((byte[]) payload);
+                return;
+            }
+            if (payload instanceof String && isValidPayload()) {
+                out.write(((String) payload).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, node());
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteJsonToStream", ex);
+        }
+    }
+
+    /**
+     * Writes the same bytes as {@link #asBytes()} to the channel, the channel is not closed.
+     */
+    public void writeTo(WritableByteChannel out) {
+        try {
+            if (payload instanceof byte[]) {
+                ByteBuffer buffer = ByteBuffer.wrap((byte[]) payload);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                return;
+            }
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteJsonToChannel", ex);
+        }
+        writeTo(Channels.newOutputStream(out));
+    }
+
+    /**
+     * Returns a deep copy of the node, which the caller is free to change.
+     */
+    public JsonNode asJsonNode() {
         try {
-            return new Json(mapper, mapper.valueToTree(jsonNode));
+            return node().deepCopy();
         } catch (Exception ex) {
             throw JsonException.ofAction("JsonDeepCopy", ex);
         }
     }
 
+    /**
+     * Returns the node itself without copying, for reading only.
+     * <p>
+     * The node may be shared by copies of this Json, changing it changes all of them.
+     */
+    public JsonNode asJsonNodeUnsafe() {
+        return node();
+    }
+
+    /**
+     * Returns a Json independent of any later change of the node given to this Json, the node is shared if this Json owns it.
+     */
+    public Json copy() {
+        if (payload != null) {
+            return new Json(mapper, payload, jsonNode);
+        }
+        if (owned) {
+            return new Json(mapper, jsonNode, true);
+        }
+        return new Json(mapper, asJsonNode(), true);
+    }
+
+    /**
+     * Returns a new Json of this one updated by the overrides, neither this Json nor the overrides are changed.
+     */
     public Json merge(Json overrides) {
         try {
-            return from((JsonNode) mapper.readerForUpdating(jsonNode).readValue(overrides.asJsonNode()));
+            JsonNode merged = mapper.readerForUpdating(asJsonNode()).readValue(overrides.node());
+            return new Json(mapper, merged, true);
         } catch (Exception ex) {
             throw JsonException.ofAction("JsonMerge", ex);
         }
@@ -116,7 +361,7 @@ public final class Json extends JsonMappers {
 
     @Override
     public int hashCode() {
-        return jsonNode.hashCode();
+        return node().hashCode();
     }
 
     @Override
@@ -128,13 +373,22 @@ public final class Json extends JsonMappers {
             return false;
         }
 
-        return jsonNode.equals(((Json) object).jsonNode);
+        return node().equals(((Json) object).node());
     }
 
 
     // Below are factories from JsonFactory.
 
-    private static final JsonFactory Factory = () -> JsonMappers.JavaMapper;
+    private static final JsonFactory Factory = JsonMappers::javaMapper;
+    private static final JsonFactory FastFactory = JsonMappers::fastMapper;
+
+    /**
+     * Returns the factories bound to {@link JsonMappers#fastMapper()}, for high-throughput POJO binding,
+     * the {@link Json} they create keep using that mapper.
+     */
+    public static JsonFactory fast() {
+        return FastFactory;
+    }
 
     public static ObjectMapper underMapper() {
         return Factory.underMapper();
@@ -188,6 +442,10 @@ public final class Json extends JsonMappers {
         return Factory.from(jsonString);
     }
 
+    public static Optional<Json> tryFrom(String jsonString) {
+        return Factory.tryFrom(jsonString);
+    }
+
     public static Json from(Map<String, Object> jsonMap) {
         return Factory.from(jsonMap);
     }
@@ -204,6 +462,98 @@ public final class Json extends JsonMappers {
         return Factory.from(jsonBytes);
     }
 
+    public static Json fromSmile(byte[] smileBytes) {
+        return Factory.fromSmile(smileBytes);
+    }
+
+    public static Json fromCbor(byte[] cborBytes) {
+        return Factory.fromCbor(cborBytes);
+    }
+
+    public static Json from(InputStream jsonStream) {
+        return Factory.from(jsonStream);
+    }
+
+    public static Json from(Reader jsonReader) {
+        return Factory.from(jsonReader);
+    }
+
+    public static Json from(ByteBuffer jsonBuffer) {
+        return Factory.from(jsonBuffer);
+    }
+
+    public static Json from(ReadableByteChannel jsonChannel) {
+        return Factory.from(jsonChannel);
+    }
+
+    public static Stream<Json> streamLines(InputStream jsonLines) {
+        return Factory.streamLines(jsonLines);
+    }
+
+    public static <T> Stream<T> streamLines(InputStream jsonLines, Class<T> clazz) {
+        return Factory.streamLines(jsonLines, clazz);
+    }
+
+    public static <T> Stream<T> streamLines(InputStream jsonLines, JavaType javaType) {
+        return Factory.streamLines(jsonLines, javaType);
+    }
+
+    public static Stream<Json> streamLines(Path jsonLinesFile, boolean parallel) {
+        return Factory.streamLines(jsonLinesFile, parallel);
+    }
+
+    public static <T> Stream<T> streamLines(Path jsonLinesFile, Class<T> clazz, boolean parallel) {
+        return Factory.streamLines(jsonLinesFile, clazz, parallel);
+    }
+
+    public static <T> Stream<T> streamLines(Path jsonLinesFile, JavaType javaType, boolean parallel) {
+        return Factory.streamLines(jsonLinesFile, javaType, parallel);
+    }
+
+    public static Stream<Json> streamArray(InputStream jsonArray) {
+        return Factory.streamArray(jsonArray);
+    }
+
+    public static <T> Stream<T> streamArray(InputStream jsonArray, Class<T> clazz) {
+        return Factory.streamArray(jsonArray, clazz);
+    }
+
+    public static <T> Stream<T> streamArray(InputStream jsonArray, JavaType javaType) {
+        return Factory.streamArray(jsonArray, javaType);
+    }
+
+    public static <T> T readValue(String jsonString, Class<T> clazz) {
+        return Factory.readValue(jsonString, clazz);
+    }
+
+    public static <T> T readValue(String jsonString, JavaType javaType) {
+        return Factory.readValue(jsonString, javaType);
+    }
+
+    public static <T> T readValue(byte[] jsonBytes, Class<T> clazz) {
+        return Factory.readValue(jsonBytes, clazz);
+    }
+
+    public static <T> T readValue(byte[] jsonBytes, JavaType javaType) {
+        return Factory.readValue(jsonBytes, javaType);
+    }
+
+    public static String write(Object value) {
+        return Factory.write(value);
+    }
+
+    public static byte[] writeAsBytes(Object value) {
+        return Factory.writeAsBytes(value);
+    }
+
+    public static Json lazy(String jsonString) {
+        return Factory.lazy(jsonString);
+    }
+
+    public static Json lazy(byte[] jsonBytes) {
+        return Factory.lazy(jsonBytes);
+    }
+
     public static JavaType typeOfGeneric(Class<?> outer, Class<?>... inners) {
         return Factory.typeOfGeneric(outer, inners);
     }
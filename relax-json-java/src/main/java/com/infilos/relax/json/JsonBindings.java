@@ -0,0 +1,117 @@
+package com.infilos.relax.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.LRUMap;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pre-resolved readers, writers and constructed types of one mapper, kept in bounded LRU caches.
+ * <br>
+ * A reader or writer resolves its root (de)serializer once when it is created, so reusing them per type
+ * skips the lookups {@link ObjectMapper#readerFor} and {@link ObjectMapper#writerFor} do on every call.
+ */
+public final class JsonBindings {
+    private static final int MAX_ENTRIES = 512;
+    // weak keys, and soft values since readers and writers reach their mapper through its JsonFactory
+    private static final Map<ObjectMapper, SoftReference<JsonBindings>> BINDINGS = new WeakHashMap<>();
+    private static volatile JsonBindings last;
+
+    /**
+     * Returns the bindings of given mapper, which are created on first use and can be collected with the mapper,
+     * or earlier when memory runs low unless the mapper is shared by {@link JsonMappers}.
+     */
+    public static JsonBindings of(ObjectMapper mapper) {
+        JsonBindings bindings = last;
+        if (bindings != null && bindings.mapper == mapper) {
+            return bindings;
+        }
+        synchronized (BINDINGS) {
+            SoftReference<JsonBindings> reference = BINDINGS.get(mapper);
+            bindings = reference != null ? reference.get() : null;
+            if (bindings == null) {
+                bindings = new JsonBindings(mapper);
+                BINDINGS.put(mapper, new SoftReference<>(bindings));
+            }
+        }
+        last = bindings;
+        return bindings;
+    }
+
+    /**
+     * Drops the bindings of a mapper which is no longer shared, before it is collected.
+     */
+    static void evict(ObjectMapper mapper) {
+        synchronized (BINDINGS) {
+            BINDINGS.remove(mapper);
+        }
+        JsonBindings bindings = last;
+        if (bindings != null && bindings.mapper == mapper) {
+            last = null;
+        }
+    }
+
+    private final ObjectMapper mapper;
+    private final LRUMap<JavaType, ObjectReader> readers = new LRUMap<>(16, MAX_ENTRIES);
+    private final LRUMap<JavaType, ObjectWriter> writers = new LRUMap<>(16, MAX_ENTRIES);
+    private final LRUMap<Object, JavaType> types = new LRUMap<>(16, MAX_ENTRIES);
+
+    private JsonBindings(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    public ObjectReader readerFor(JavaType javaType) {
+        ObjectReader reader = readers.get(javaType);
+        if (reader == null) {
+            reader = mapper.readerFor(javaType);
+            readers.putIfAbsent(javaType, reader);
+        }
+        return reader;
+    }
+
+    public ObjectReader readerFor(Class<?> clazz) {
+        return readerFor(mapper.constructType(clazz));
+    }
+
+    public ObjectReader readerFor(TypeReference<?> typeReference) {
+        return readerFor(mapper.constructType(typeReference));
+    }
+
+    public ObjectWriter writerFor(JavaType javaType) {
+        ObjectWriter writer = writers.get(javaType);
+        if (writer == null) {
+            writer = mapper.writerFor(javaType);
+            writers.putIfAbsent(javaType, writer);
+        }
+        return writer;
+    }
+
+    public ObjectWriter writerFor(Class<?> clazz) {
+        return writerFor(mapper.constructType(clazz));
+    }
+
+    /**
+     * Returns the type constructed for given parts, like the outer and inner classes of a generic type.
+     */
+    JavaType type(Supplier<JavaType> constructor, Object... parts) {
+        Object key = Arrays.asList(parts);
+        JavaType type = types.get(key);
+        if (type == null) {
+            type = constructor.get();
+            types.putIfAbsent(key, type);
+        }
+        return type;
+    }
+}
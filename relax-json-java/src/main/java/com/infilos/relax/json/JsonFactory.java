@@ -1,20 +1,31 @@
 package com.infilos.relax.json;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.*;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 
 import com.infilos.relax.Json;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-import static com.infilos.relax.json.JsonMappers.JavaMapper;
 
 /**
  * @author infilos on 2020-06-13.
@@ -56,29 +67,23 @@ public interface JsonFactory {
         return StringEscapeUtils.unescapeJson(jsonString);
     }
 
+    /**
+     * Scans the tokens of the string without building a tree, text which can not start a JSON value is rejected before parsing.
+     */
     default boolean isValidJsonString(String jsonString) {
-        if(StringUtils.isBlank(jsonString)) {
-            return false;
-        }
-
-        try {
-            underMapper().readTree(jsonString);
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+        return JsonScanner.isValid(underMapper(), jsonString);
     }
 
     default Json blankBlock() {
-        return new Json(underMapper(), underMapper().createObjectNode());
+        return new Json(underMapper(), underMapper().createObjectNode(), true);
     }
 
     default Json blankArray() {
-        return new Json(underMapper(), underMapper().createArrayNode());
+        return new Json(underMapper(), underMapper().createArrayNode(), true);
     }
 
     default Json blankString() {
-        return new Json(underMapper(), TextNode.valueOf(""));
+        return new Json(underMapper(), TextNode.valueOf(""), true);
     }
 
     default Json from(String jsonString) {
@@ -88,21 +93,39 @@ public interface JsonFactory {
         if(StringUtils.isBlank(jsonString)) {
             return blankString();
         }
+        if(!JsonScanner.mayStartValue(jsonString)) {
+            return new Json(underMapper(), TextNode.valueOf(jsonString), true);
+        }
 
         try {
-            return new Json(underMapper(),underMapper().readTree(jsonString));
+            return new Json(underMapper(), underMapper().readTree(jsonString), true);
         } catch (Exception ex) {
             try {
-                return new Json(underMapper(), TextNode.valueOf(jsonString));
+                return new Json(underMapper(), TextNode.valueOf(jsonString), true);
             } catch (Exception e) {
                 throw JsonException.ofAction("ReadJsonFromString", ex);
             }
         }
     }
 
+    /**
+     * Reads a Json from the string if it is valid JSON, unlike {@link #from(String)} other text is not read as a JSON string.
+     */
+    default Optional<Json> tryFrom(String jsonString) {
+        if(StringUtils.isBlank(jsonString) || !JsonScanner.mayStartValue(jsonString)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new Json(underMapper(), underMapper().readTree(jsonString), true));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
     default Json from(Map<String,Object> jsonMap) {
         try {
-            return new Json(underMapper(), underMapper().valueToTree(jsonMap));
+            return new Json(underMapper(), underMapper().valueToTree(jsonMap), true);
         } catch (Exception ex) {
             throw JsonException.ofAction("ReadJsonFromMap", ex);
         }
@@ -119,7 +142,7 @@ public interface JsonFactory {
             if(javaObject instanceof String) {
                 return from((String) javaObject);
             }
-            return new Json(underMapper(), underMapper().valueToTree(javaObject));
+            return new Json(underMapper(), underMapper().valueToTree(javaObject), true);
         } catch (Exception ex) {
             throw JsonException.ofAction("ReadJsonFromObject", ex);
         }
@@ -139,41 +162,314 @@ public interface JsonFactory {
 
     default Json from(byte[] jsonBytes) {
         try {
-            return new Json(underMapper(), JavaMapper.readTree(jsonBytes));
+            return new Json(underMapper(), underMapper().readTree(jsonBytes), true);
         } catch (Exception ex) {
             throw JsonException.ofAction("ReadJsonFromBytes", ex);
         }
     }
 
+    /**
+     * Reads a Json from the Smile binary format, through {@link JsonMappers#smileMapper()} with the same modules.
+     */
+    default Json fromSmile(byte[] smileBytes) {
+        try {
+            return new Json(underMapper(), JsonMappers.smileMapper().readTree(smileBytes), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromSmile", ex);
+        }
+    }
+
+    /**
+     * Reads a Json from the CBOR binary format, through {@link JsonMappers#cborMapper()} with the same modules.
+     */
+    default Json fromCbor(byte[] cborBytes) {
+        try {
+            return new Json(underMapper(), JsonMappers.cborMapper().readTree(cborBytes), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromCbor", ex);
+        }
+    }
+
+    /**
+     * Reads a Json from the UTF-8, UTF-16 or UTF-32 stream with the byte based parser, the stream is not closed.
+     */
+    default Json from(InputStream jsonStream) {
+        if(jsonStream == null) {
+            throw JsonException.of("ReadJsonFromStream, Null");
+        }
+
+        try {
+            return new Json(underMapper(), underMapper().reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE).readTree(jsonStream), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromStream", ex);
+        }
+    }
+
+    /**
+     * Reads a Json from the reader, the reader is not closed.
+     */
+    default Json from(Reader jsonReader) {
+        if(jsonReader == null) {
+            throw JsonException.of("ReadJsonFromReader, Null");
+        }
+
+        try {
+            return new Json(underMapper(), underMapper().reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE).readTree(jsonReader), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromReader", ex);
+        }
+    }
+
+    /**
+     * Reads a Json from the remaining bytes of a heap or direct buffer, the position of the buffer is not changed.
+     */
+    default Json from(ByteBuffer jsonBuffer) {
+        if(jsonBuffer == null) {
+            throw JsonException.of("ReadJsonFromByteBuffer, Null");
+        }
+
+        try {
+            if(jsonBuffer.hasArray()) {
+                int offset = jsonBuffer.arrayOffset() + jsonBuffer.position();
+                return new Json(underMapper(), underMapper().readTree(jsonBuffer.array(), offset, jsonBuffer.remaining()), true);
+            }
+            return new Json(underMapper(), underMapper().reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE).readTree(new ByteBufferBackedInputStream(jsonBuffer.duplicate())), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromByteBuffer", ex);
+        }
+    }
+
+    /**
+     * Reads a Json from the channel until its end, the channel is not closed.
+     */
+    default Json from(ReadableByteChannel jsonChannel) {
+        if(jsonChannel == null) {
+            throw JsonException.of("ReadJsonFromChannel, Null");
+        }
+
+        try {
+            return new Json(underMapper(), underMapper().reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE).readTree(Channels.newInputStream(jsonChannel)), true);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadJsonFromChannel", ex);
+        }
+    }
+
+    /**
+     * Streams the values of newline-delimited JSON, or any values separated by whitespace, with one parser in constant memory
+     * per value. Closing the stream closes the input, which is also closed once the last value is read.
+     */
+    default Stream<Json> streamLines(InputStream jsonLines) {
+        // all values share the mapper which parsed them, even if the mappers are replaced meanwhile
+        JsonBindings bindings = bindings();
+        return JsonStreams.<JsonNode>lines(bindings.readerFor(JsonNode.class), jsonLines)
+            .map(node -> new Json(bindings.getMapper(), node, true));
+    }
+
+    /**
+     * Streams the values of newline-delimited JSON as given type, see {@link #streamLines(InputStream)}.
+     */
+    default <T> Stream<T> streamLines(InputStream jsonLines, Class<T> clazz) {
+        return JsonStreams.lines(bindings().readerFor(clazz), jsonLines);
+    }
+
+    /**
+     * Streams the values of newline-delimited JSON as given type, see {@link #streamLines(InputStream)}.
+     */
+    default <T> Stream<T> streamLines(InputStream jsonLines, JavaType javaType) {
+        return JsonStreams.lines(bindings().readerFor(javaType), jsonLines);
+    }
+
+    /**
+     * Streams the lines of a memory-mapped NDJSON file, a parallel stream splits the file between threads at line boundaries.
+     * Blank lines are skipped.
+     */
+    default Stream<Json> streamLines(Path jsonLinesFile, boolean parallel) {
+        JsonBindings bindings = bindings();
+        return JsonStreams.<JsonNode>lines(bindings.readerFor(JsonNode.class), jsonLinesFile, parallel)
+            .map(node -> new Json(bindings.getMapper(), node, true));
+    }
+
+    /**
+     * Streams the lines of a memory-mapped NDJSON file as given type, see {@link #streamLines(Path, boolean)}.
+     */
+    default <T> Stream<T> streamLines(Path jsonLinesFile, Class<T> clazz, boolean parallel) {
+        return JsonStreams.lines(bindings().readerFor(clazz), jsonLinesFile, parallel);
+    }
+
+    /**
+     * Streams the lines of a memory-mapped NDJSON file as given type, see {@link #streamLines(Path, boolean)}.
+     */
+    default <T> Stream<T> streamLines(Path jsonLinesFile, JavaType javaType, boolean parallel) {
+        return JsonStreams.lines(bindings().readerFor(javaType), jsonLinesFile, parallel);
+    }
+
+    /**
+     * Streams the elements of a root JSON array with one parser in constant memory per element.
+     * Closing the stream closes the input, which is also closed once the last element is read.
+     */
+    default Stream<Json> streamArray(InputStream jsonArray) {
+        JsonBindings bindings = bindings();
+        return JsonStreams.<JsonNode>array(bindings.readerFor(JsonNode.class), jsonArray)
+            .map(node -> new Json(bindings.getMapper(), node, true));
+    }
+
+    /**
+     * Streams the elements of a root JSON array as given type, see {@link #streamArray(InputStream)}.
+     */
+    default <T> Stream<T> streamArray(InputStream jsonArray, Class<T> clazz) {
+        return JsonStreams.array(bindings().readerFor(clazz), jsonArray);
+    }
+
+    /**
+     * Streams the elements of a root JSON array as given type, see {@link #streamArray(InputStream)}.
+     */
+    default <T> Stream<T> streamArray(InputStream jsonArray, JavaType javaType) {
+        return JsonStreams.array(bindings().readerFor(javaType), jsonArray);
+    }
+
+    /**
+     * Returns a Json which keeps the payload and parses it on the first structural access only,
+     * asString() and asBytes() return the payload itself, which suits JSON passed through unchanged.
+     */
+    default Json lazy(String jsonString) {
+        if(jsonString == null) {
+            throw JsonException.of("ReadJsonFromString, Null");
+        }
+        if(StringUtils.isBlank(jsonString)) {
+            return blankString();
+        }
+
+        return Json.lazy(underMapper(), jsonString);
+    }
+
+    /**
+     * Returns a Json which keeps the UTF-8 payload and parses it on the first structural access only,
+     * asString() and asBytes() return the payload itself, which suits JSON passed through unchanged.
+     */
+    default Json lazy(byte[] jsonBytes) {
+        if(jsonBytes == null) {
+            throw JsonException.of("ReadJsonFromBytes, Null");
+        }
+
+        return Json.lazy(underMapper(), jsonBytes);
+    }
+
+    /**
+     * Returns the cached readers, writers and types of the mapper.
+     */
+    default JsonBindings bindings() {
+        return JsonBindings.of(underMapper());
+    }
+
+    /**
+     * Reads a value of given type straight from the JSON string, without building a tree first.
+     */
+    default <T> T readValue(String jsonString, Class<T> clazz) {
+        try {
+            return bindings().readerFor(clazz).readValue(jsonString);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadValueFromString", ex);
+        }
+    }
+
+    /**
+     * Reads a value of given type straight from the JSON string, without building a tree first.
+     */
+    default <T> T readValue(String jsonString, JavaType javaType) {
+        try {
+            return bindings().readerFor(javaType).readValue(jsonString);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadValueFromString", ex);
+        }
+    }
+
+    /**
+     * Reads a value of given type straight from the JSON bytes, without building a tree first.
+     */
+    default <T> T readValue(byte[] jsonBytes, Class<T> clazz) {
+        try {
+            return bindings().readerFor(clazz).readValue(jsonBytes);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadValueFromBytes", ex);
+        }
+    }
+
+    /**
+     * Reads a value of given type straight from the JSON bytes, without building a tree first.
+     */
+    default <T> T readValue(byte[] jsonBytes, JavaType javaType) {
+        try {
+            return bindings().readerFor(javaType).readValue(jsonBytes);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("ReadValueFromBytes", ex);
+        }
+    }
+
+    /**
+     * Writes the value straight to a JSON string, without building a tree first.
+     */
+    default String write(Object value) {
+        try {
+            if(value == null) {
+                return "null";
+            }
+            return bindings().writerFor(value.getClass()).writeValueAsString(value);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteValueToString", ex);
+        }
+    }
+
+    /**
+     * Writes the value straight to JSON bytes, without building a tree first.
+     */
+    default byte[] writeAsBytes(Object value) {
+        try {
+            if(value == null) {
+                return "null".getBytes(StandardCharsets.UTF_8);
+            }
+            return bindings().writerFor(value.getClass()).writeValueAsBytes(value);
+        } catch (Exception ex) {
+            throw JsonException.ofAction("WriteValueToBytes", ex);
+        }
+    }
+
     default JavaType typeOfGeneric(Class<?> outer, Class<?>...inners) {
-        return underMapper().getTypeFactory().constructParametricType(outer, inners);
+        return bindings().type(() -> underMapper().getTypeFactory().constructParametricType(outer, inners),
+            "generic", outer, Arrays.asList(inners));
     }
 
     default JavaType typeOfGeneric(Class<?> outer, JavaType...inners) {
-        return underMapper().getTypeFactory().constructParametricType(outer, inners);
+        return bindings().type(() -> underMapper().getTypeFactory().constructParametricType(outer, inners),
+            "generic", outer, Arrays.asList(inners));
     }
 
     default JavaType typeOfMap(Class<? extends Map<?,?>> map, Class<?> key, Class<?> value) {
-        return underMapper().getTypeFactory().constructMapType(map, key, value);
+        return bindings().type(() -> underMapper().getTypeFactory().constructMapType(map, key, value),
+            "map", map, key, value);
     }
 
     default JavaType typeOfMap(Class<? extends Map<?,?>> map, JavaType key, JavaType value) {
-        return underMapper().getTypeFactory().constructMapType(map, key, value);
+        return bindings().type(() -> underMapper().getTypeFactory().constructMapType(map, key, value),
+            "map", map, key, value);
     }
 
     default JavaType typeOfArray(Class<?> inner) {
-        return underMapper().getTypeFactory().constructArrayType(inner);
+        return bindings().type(() -> underMapper().getTypeFactory().constructArrayType(inner),
+            "array", inner);
     }
 
     default JavaType typeOfArray(JavaType inner) {
-        return underMapper().getTypeFactory().constructArrayType(inner);
+        return bindings().type(() -> underMapper().getTypeFactory().constructArrayType(inner),
+            "array", inner);
     }
 
     default JavaType typeOfCollection(Class<? extends Collection<?>> outer, Class<?> inner) {
-        return underMapper().getTypeFactory().constructCollectionType(outer, inner);
+        return bindings().type(() -> underMapper().getTypeFactory().constructCollectionType(outer, inner),
+            "collection", outer, inner);
     }
 
     default JavaType typeOfCollection(Class<? extends Collection<?>> outer, JavaType inner) {
-        return underMapper().getTypeFactory().constructCollectionType(outer, inner);
+        return bindings().type(() -> underMapper().getTypeFactory().constructCollectionType(outer, inner),
+            "collection", outer, inner);
     }
 }
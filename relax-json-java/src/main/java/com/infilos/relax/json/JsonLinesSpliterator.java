@@ -0,0 +1,108 @@
+package com.infilos.relax.json;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splits a memory-mapped NDJSON file by line boundaries, each line is copied into a reused buffer and read by itself.
+ * <br>
+ * Every split holds its own view of the mapping, so splits run on different threads without sharing any state.
+ * Blank lines are skipped, lines may end with "\r\n".
+ */
+final class JsonLinesSpliterator<T> implements Spliterator<T> {
+    // below this many bytes a range is not worth another task
+    private static final int MIN_SPLIT_SIZE = 1 << 16;
+
+    private final ObjectReader reader;
+    private final ByteBuffer mapping;
+    private int from;
+    private final int to;
+    private byte[] line = new byte[256];
+
+    JsonLinesSpliterator(ObjectReader reader, ByteBuffer mapping, int from, int to) {
+        this.reader = reader;
+        this.mapping = mapping.duplicate();
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (from < to) {
+            int start = from;
+            int end = start;
+            while (end < to && mapping.get(end) != '\n') {
+                end++;
+            }
+            from = end < to ? end + 1 : to;
+
+            if (!isBlank(start, end)) {
+                action.accept(read(start, end));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = mapping.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private T read(int start, int end) {
+        int length = end - start;
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        // through Buffer, ByteBuffer.position(int) does not exist on Java 8
+        ((Buffer) mapping).position(start);
+        mapping.get(line, 0, length);
+
+        try {
+            return reader.readValue(line, 0, length);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("ReadJsonFromLine", ex);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int remaining = to - from;
+        if (remaining < MIN_SPLIT_SIZE) {
+            return null;
+        }
+
+        int middle = from + remaining / 2;
+        while (middle < to && mapping.get(middle - 1) != '\n') {
+            middle++;
+        }
+        if (middle >= to) {
+            return null;
+        }
+
+        Spliterator<T> prefix = new JsonLinesSpliterator<>(reader, mapping, from, middle);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // bytes, an upper bound of the lines left
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE;
+    }
+}
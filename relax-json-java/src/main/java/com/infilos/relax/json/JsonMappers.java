@@ -4,61 +4,302 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * @author infilos on 2020-06-13.
+ * <p>
+ * The registry of the shared mappers. Mappers are never changed once published: registering modules builds a new snapshot
+ * of both mappers and publishes it atomically, so calls in flight keep the mappers they started with,
+ * and the serializer caches of a snapshot are never invalidated. Read the current mappers by {@link #javaMapper()} and {@link #scalaMapper()}.
+ * <p>
+ * Jackson builds the serializers and deserializers of a type on its first use, call {@link #warmUp(Class[])} on startup
+ * to take that cost before the first requests, and to scan the {@link JsonSerdes} services ahead of them as well.
  */
 
 public class JsonMappers {
     protected JsonMappers() {
     }
 
-    public static final ObjectMapper JavaMapper = new ObjectMapper();
-    public static final ObjectMapper ScalaMapper = new ObjectMapper();
+    private static final List<Class<?>> SerdesTypes = new ArrayList<>();
     private static final SimpleModule SerdesModule = buildSerdesModule();
+    private static final AtomicReference<Snapshot> Current = new AtomicReference<>(
+        new Snapshot(null, Collections.emptyList(), Collections.emptyList()));
 
-    static {
-        ScalaMapper.registerModule(new Jdk8Module());
-        ScalaMapper.registerModule(new JavaTimeModule());
-        ScalaMapper.registerModule(new ParameterNamesModule());
-        ScalaMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        ScalaMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        ScalaMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,false);
-        ScalaMapper.registerModule(SerdesModule);
+    /**
+     * The Java mapper of the first snapshot.
+     *
+     * @deprecated it is not replaced by later snapshots, and changing it is not thread-safe, use {@link #javaMapper()}
+     */
+    @Deprecated
+    public static final ObjectMapper JavaMapper = Current.get().javaMapper;
 
-        JavaMapper.registerModule(new Jdk8Module());
-        JavaMapper.registerModule(new JavaTimeModule());
-        JavaMapper.registerModule(new ParameterNamesModule());
-        JavaMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        JavaMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        JavaMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,false);
-        JavaMapper.registerModule(SerdesModule);
+    /**
+     * The Scala mapper of the first snapshot.
+     *
+     * @deprecated it is not replaced by later snapshots, and changing it is not thread-safe, use {@link #scalaMapper()}
+     */
+    @Deprecated
+    public static final ObjectMapper ScalaMapper = Current.get().scalaMapper;
+
+    /**
+     * Returns the Java mapper of the current snapshot, which must not be reconfigured.
+     */
+    public static ObjectMapper javaMapper() {
+        return Current.get().javaMapper;
+    }
+
+    /**
+     * Returns the Scala mapper of the current snapshot, which must not be reconfigured.
+     */
+    public static ObjectMapper scalaMapper() {
+        return Current.get().scalaMapper;
+    }
+
+    /**
+     * Returns the fast Java mapper of the current snapshot, which must not be reconfigured.
+     * <br>
+     * It is configured like {@link #javaMapper()}, with the Blackbird module accessing bean properties through generated lambdas
+     * instead of reflection, which pays off for POJO binding at the cost of a slower first use per type. It is built on first call.
+     */
+    public static ObjectMapper fastMapper() {
+        return Current.get().fastMapper();
+    }
+
+    /**
+     * Returns the Smile mapper of the current snapshot, configured like {@link #javaMapper()}, which must not be reconfigured.
+     * It is built on first call.
+     */
+    public static ObjectMapper smileMapper() {
+        return Current.get().formatMapper("smile", SmileMapper::builder);
+    }
+
+    /**
+     * Returns the CBOR mapper of the current snapshot, configured like {@link #javaMapper()}, which must not be reconfigured.
+     * It is built on first call.
+     */
+    public static ObjectMapper cborMapper() {
+        return Current.get().formatMapper("cbor", CBORMapper::builder);
     }
 
+    /**
+     * Returns if the text is well-formed JSON for given mapper, by its tokens only, see {@link JsonFactory#isValidJsonString(String)}.
+     */
+    protected static boolean isValidJson(ObjectMapper mapper, String text) {
+        return JsonScanner.isValid(mapper, text);
+    }
+
+    /**
+     * Publishes a new snapshot of both mappers with the module registered.
+     */
     public static void register(Module module) {
-        JavaMapper.registerModule(module);
-        ScalaMapper.registerModule(module);
+        register(new Module[]{module});
     }
 
+    /**
+     * Publishes a new snapshot of both mappers with the modules registered.
+     */
     public static void register(Module... modules) {
-        JavaMapper.registerModules(modules);
-        ScalaMapper.registerModules(modules);
+        publish(snapshot -> new Snapshot(snapshot, concat(snapshot.modules, modules), snapshot.scalaModules));
+    }
+
+    /**
+     * Publishes a new snapshot with the modules registered on the Scala mapper only, like the Jackson Scala module.
+     */
+    public static void registerScala(Module... modules) {
+        publish(snapshot -> new Snapshot(snapshot, snapshot.modules, concat(snapshot.scalaModules, modules)));
+    }
+
+    /**
+     * Resolves the serializers and deserializers of the {@link JsonSerdes} types and of given types on the current mappers,
+     * one type after another, the Scala mapper is only warmed once Scala modules are registered.
+     */
+    public static JsonWarmUpReport warmUp(Class<?>... types) {
+        return warmUp(false, types);
     }
-    
+
+    /**
+     * Like {@link #warmUp(Class[])}, with the types resolved on the common pool.
+     */
+    public static JsonWarmUpReport warmUpInParallel(Class<?>... types) {
+        return warmUp(true, types);
+    }
+
+    private static JsonWarmUpReport warmUp(boolean parallel, Class<?>[] types) {
+        Set<Class<?>> distinct = new LinkedHashSet<>(SerdesTypes);
+        distinct.addAll(Arrays.asList(types));
+        List<Class<?>> all = new ArrayList<>(distinct);
+
+        Snapshot snapshot = Current.get();
+        long[] nanos = new long[all.size()];
+        Map<Class<?>, Throwable> failures = new ConcurrentHashMap<>();
+
+        long start = System.nanoTime();
+        IntStream indices = IntStream.range(0, all.size());
+        (parallel ? indices.parallel() : indices).forEach(i -> {
+            long typeStart = System.nanoTime();
+            try {
+                warmUp(snapshot.javaMapper, all.get(i));
+                if (!snapshot.scalaModules.isEmpty()) {
+                    warmUp(snapshot.scalaMapper, all.get(i));
+                }
+            } catch (RuntimeException ex) {
+                failures.put(all.get(i), ex);
+            }
+            nanos[i] = System.nanoTime() - typeStart;
+        });
+        long totalNanos = System.nanoTime() - start;
+
+        Map<Class<?>, Long> ordered = new LinkedHashMap<>();
+        Map<Class<?>, Throwable> orderedFailures = new LinkedHashMap<>();
+        for (int i = 0; i < all.size(); i++) {
+            ordered.put(all.get(i), nanos[i]);
+            if (failures.containsKey(all.get(i))) {
+                orderedFailures.put(all.get(i), failures.get(all.get(i)));
+            }
+        }
+        return new JsonWarmUpReport(ordered, orderedFailures, totalNanos);
+    }
+
+    private static void warmUp(ObjectMapper mapper, Class<?> type) {
+        // readers and writers swallow resolution failures until first use, so resolve through the mapper to see them
+        AtomicReference<Throwable> cause = new AtomicReference<>();
+        if (!mapper.canSerialize(type, cause)) {
+            throw failure("WarmUpSerializer", type, cause.get());
+        }
+        if (!mapper.canDeserialize(mapper.constructType(type), cause)) {
+            throw failure("WarmUpDeserializer", type, cause.get());
+        }
+
+        // then cache the reader and writer, which pick up the resolved root (de)serializers
+        JsonBindings bindings = JsonBindings.of(mapper);
+        bindings.writerFor(type);
+        bindings.readerFor(type);
+    }
+
+    private static JsonException failure(String action, Class<?> type, Throwable cause) {
+        return cause == null
+            ? JsonException.of(String.format("%s, %s is not supported", action, type.getName()))
+            : JsonException.ofAction(action, cause);
+    }
+
+    private static void publish(UnaryOperator<Snapshot> update) {
+        Snapshot previous;
+        Snapshot next;
+        do {
+            previous = Current.get();
+            next = update.apply(previous);
+        } while (!Current.compareAndSet(previous, next));
+
+        // caches of replaced mappers are only needed by calls in flight, which hold their own references
+        if (next.javaMapper != previous.javaMapper) {
+            JsonBindings.evict(previous.javaMapper);
+        }
+        JsonBindings.evict(previous.scalaMapper);
+        if (previous.fastMapper != null && next.fastMapper != previous.fastMapper) {
+            JsonBindings.evict(previous.fastMapper);
+        }
+        previous.formatMappers.values().forEach(JsonBindings::evict);
+    }
+
+    private static List<Module> concat(List<Module> registered, Module[] modules) {
+        List<Module> all = new ArrayList<>(registered);
+        all.addAll(Arrays.asList(modules));
+        return Collections.unmodifiableList(all);
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> B configure(B builder, List<Module> modules) {
+        return builder
+            .addModule(new Jdk8Module())
+            .addModule(new JavaTimeModule())
+            .addModule(new ParameterNamesModule())
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .addModule(SerdesModule)
+            .addModules(modules);
+    }
+
+    /**
+     * The registered modules and the mappers built from them, neither is changed after publishing.
+     * The Java mappers of the previous snapshot are kept with their warm caches if only Scala modules changed.
+     */
+    private static final class Snapshot {
+        private final List<Module> modules;
+        private final List<Module> scalaModules;
+        private final ObjectMapper javaMapper;
+        private final ObjectMapper scalaMapper;
+        // keeps the bindings of the shared mapper from being collected while it is published
+        private final JsonBindings javaBindings;
+        private volatile ObjectMapper fastMapper;
+        private final Map<String, ObjectMapper> formatMappers = new ConcurrentHashMap<>();
+
+        private Snapshot(Snapshot previous, List<Module> modules, List<Module> scalaModules) {
+            this.modules = modules;
+            this.scalaModules = scalaModules;
+            this.javaMapper = previous != null && previous.modules == modules
+                ? previous.javaMapper
+                : configure(JsonMapper.builder(), modules).build();
+            this.javaBindings = JsonBindings.of(javaMapper);
+            this.scalaMapper = configure(JsonMapper.builder(), modules).addModules(scalaModules).build();
+            this.fastMapper = previous != null && previous.modules == modules ? previous.fastMapper : null;
+        }
+
+        private ObjectMapper fastMapper() {
+            ObjectMapper mapper = fastMapper;
+            if (mapper == null) {
+                synchronized (this) {
+                    mapper = fastMapper;
+                    if (mapper == null) {
+                        mapper = configure(JsonMapper.builder(), modules).addModule(new BlackbirdModule()).build();
+                        fastMapper = mapper;
+                    }
+                }
+            }
+            return mapper;
+        }
+
+        private <M extends ObjectMapper, B extends MapperBuilder<M, B>> ObjectMapper formatMapper(String format, Supplier<B> builder) {
+            ObjectMapper mapper = formatMappers.get(format);
+            if (mapper == null) {
+                mapper = formatMappers.computeIfAbsent(format, ignore -> configure(builder.get(), modules).build());
+            }
+            return mapper;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static SimpleModule buildSerdesModule() {
         SimpleModule module = new SimpleModule();
-        
+
         ServiceLoader.load(JsonSerdes.class).forEach(serdes -> {
             if(serdes.onClass() == null) {
-               return; 
+               return;
             }
+            SerdesTypes.add(serdes.onClass());
             if(serdes.serializer() != null) {
                 module.addSerializer(serdes.onClass(), serdes.serializer());
             }
@@ -66,7 +307,7 @@ public class JsonMappers {
                 module.addDeserializer(serdes.onClass(), serdes.deserializer());
             }
         });
-        
+
         return module;
     }
 }
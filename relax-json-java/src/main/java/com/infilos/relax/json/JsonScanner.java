@@ -0,0 +1,88 @@
+package com.infilos.relax.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+
+/**
+ * Validates JSON text by its tokens only, without building a tree, behind {@link JsonFactory#isValidJsonString(String)}.
+ * <br>
+ * The parser reports malformed input by throwing, so text which can not start any JSON value is rejected before parsing.
+ */
+final class JsonScanner {
+
+    private JsonScanner() {
+    }
+
+    /**
+     * Returns false if the first character after whitespace can not start a root value, even with the lenient parser features
+     * like comments, single quotes or non-numeric numbers, so the result holds for any mapper.
+     */
+    static boolean mayStartValue(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    continue;
+                case '{':
+                case '[':
+                case '"':
+                case '\'':
+                case '-':
+                case '+':
+                case '.':
+                case 't':
+                case 'f':
+                case 'n':
+                case 'N':
+                case 'I':
+                case '/':
+                case '#':
+                case '\uFEFF':
+                    return true;
+                default:
+                    return c >= '0' && c <= '9';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the text is well-formed JSON for the parser features of given mapper, blank text is not.
+     */
+    static boolean isValid(ObjectMapper mapper, String text) {
+        if (StringUtils.isBlank(text) || !mayStartValue(text)) {
+            return false;
+        }
+
+        try {
+            return isValid(mapper.getFactory().createParser(text));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the tokens of the first root value, like readTree does, and returns if they are well-formed.
+     */
+    static boolean isValid(JsonParser parser) {
+        try (JsonParser scanning = parser) {
+            JsonToken token = scanning.nextToken();
+            if (token == null) {
+                return false;
+            }
+            // nested strings are scanned while skipping to the closing token, a root string is left pending
+            scanning.skipChildren();
+            scanning.finishToken();
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.infilos.relax.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams of values read one at a time from a single parser, behind the stream factories of {@link JsonFactory}.
+ */
+final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Returns the values separated by whitespace, like the lines of NDJSON, root arrays are values as well.
+     */
+    static <T> Stream<T> lines(ObjectReader reader, InputStream input) {
+        JsonParser parser = createParser(reader, input, "ReadJsonFromLines");
+        return stream(reader, parser, "ReadJsonFromLines");
+    }
+
+    /**
+     * Returns the elements of the root array.
+     */
+    static <T> Stream<T> array(ObjectReader reader, InputStream input) {
+        JsonParser parser = createParser(reader, input, "ReadJsonFromArray");
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw JsonException.of("ReadJsonFromArray, root value is not an array");
+            }
+            // the iterator reads the next token itself, and stops at the end of the array
+            parser.clearCurrentToken();
+        } catch (IOException ex) {
+            closeQuietly(parser);
+            throw JsonException.ofAction("ReadJsonFromArray", ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(parser);
+            throw ex;
+        }
+        return stream(reader, parser, "ReadJsonFromArray");
+    }
+
+    /**
+     * Returns the lines of the memory-mapped NDJSON file, which are split between threads at line boundaries.
+     * Files beyond the 2GB of a single mapping are streamed sequentially instead.
+     */
+    static <T> Stream<T> lines(ObjectReader reader, Path file, boolean parallel) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return JsonStreams.<T>lines(reader, Files.newInputStream(file));
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return StreamSupport.stream(new JsonLinesSpliterator<>(reader, mapped, 0, (int) size), parallel);
+        } catch (IOException ex) {
+            throw JsonException.ofAction("ReadJsonFromFile", ex);
+        }
+    }
+
+    private static JsonParser createParser(ObjectReader reader, InputStream input, String action) {
+        if (input == null) {
+            throw JsonException.of(action + ", Null");
+        }
+        try {
+            return reader.createParser(input);
+        } catch (IOException ex) {
+            throw JsonException.ofAction(action, ex);
+        }
+    }
+
+    private static <T> Stream<T> stream(ObjectReader reader, JsonParser parser, String action) {
+        MappingIterator<T> values;
+        try {
+            values = reader.readValues(parser);
+        } catch (IOException ex) {
+            closeQuietly(parser);
+            throw JsonException.ofAction(action, ex);
+        }
+
+        Iterator<T> iterator = new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (values.hasNextValue()) {
+                        return true;
+                    }
+                    parser.close();
+                    return false;
+                } catch (IOException ex) {
+                    throw JsonException.ofAction(action, ex);
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return values.nextValue();
+                } catch (IOException ex) {
+                    throw JsonException.ofAction(action, ex);
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+            .onClose(() -> closeQuietly(parser));
+    }
+
+    private static void closeQuietly(JsonParser parser) {
+        try {
+            parser.close();
+        } catch (IOException ignore) {
+            // nothing left to read
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.infilos.relax.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long {@link JsonMappers#warmUp(Class[])} took to resolve the serializers and deserializers of each type,
+ * and the types which failed to resolve.
+ */
+public final class JsonWarmUpReport {
+    private final Map<Class<?>, Long> nanos;
+    private final Map<Class<?>, Throwable> failures;
+    private final long totalNanos;
+
+    JsonWarmUpReport(Map<Class<?>, Long> nanos, Map<Class<?>, Throwable> failures, long totalNanos) {
+        this.nanos = Collections.unmodifiableMap(nanos);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the nanoseconds each type took, in the order the types were given, failed types included.
+     */
+    public Map<Class<?>, Long> getNanos() {
+        return nanos;
+    }
+
+    public Map<Class<?>, Throwable> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Returns the wall-clock nanoseconds of the whole warm-up, less than the sum of the types when run in parallel.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Lists the types from the slowest, like "Warmed up 2 types in 12.30ms: Order 10.10ms, Line 2.20ms".
+     */
+    @Override
+    public String toString() {
+        List<Map.Entry<Class<?>, Long>> entries = new ArrayList<>(nanos.entrySet());
+        entries.sort(Map.Entry.<Class<?>, Long>comparingByValue().reversed());
+
+        StringBuilder builder = new StringBuilder()
+            .append("Warmed up ").append(nanos.size()).append(" types in ").append(millis(totalNanos));
+        String separator = ": ";
+        for (Map.Entry<Class<?>, Long> entry : entries) {
+            builder.append(separator).append(entry.getKey().getSimpleName()).append(' ').append(millis(entry.getValue()));
+            if (failures.containsKey(entry.getKey())) {
+                builder.append(" (failed)");
+            }
+            separator = ", ";
+        }
+        return builder.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
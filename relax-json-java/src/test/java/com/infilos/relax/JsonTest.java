@@ -4,10 +4,28 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.infilos.relax.json.JsonBindings;
+import com.infilos.relax.json.JsonException;
+import com.infilos.relax.json.JsonMappers;
+import com.infilos.relax.json.JsonWarmUpReport;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import org.junit.Test;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -80,6 +98,27 @@ public class JsonTest {
         assertTrue(Json.isValidJsonString("{\"name\":\"Anna\"}"));
         assertFalse(Json.isValidJsonString("{\"name\"\"Anna\"}"));
         assertFalse(Json.isValidJsonString("{\"name\":\"Anna}"));
+        assertTrue(Json.isValidJsonString(" [1, 2.5, true, null, \"a\\n\"]"));
+        assertTrue(Json.isValidJsonString("\"Anna\""));
+        assertTrue(Json.isValidJsonString("-12"));
+        assertFalse(Json.isValidJsonString("\"Anna"));
+        assertFalse(Json.isValidJsonString("\"An\\qna\""));
+        assertFalse(Json.isValidJsonString("12a"));
+        assertFalse(Json.isValidJsonString("Anna"));
+        assertFalse(Json.isValidJsonString("tru"));
+        assertFalse(Json.isValidJsonString("[1,]"));
+    }
+
+    @Test
+    public void testTryFrom() {
+        assertEquals(Json.from("{\"name\":\"Anna\"}"), Json.tryFrom("{\"name\":\"Anna\"}").get());
+        assertFalse(Json.tryFrom("Anna").isPresent());
+        assertFalse(Json.tryFrom("{\"name\":").isPresent());
+        assertFalse(Json.tryFrom(" ").isPresent());
+        assertFalse(Json.tryFrom(null).isPresent());
+
+        assertEquals("Anna", Json.from("Anna").asString());
+        assertEquals("{\"name\":", Json.from("{\"name\":").asString());
     }
 
     @Test
@@ -247,6 +286,307 @@ public class JsonTest {
         assertEquals(map.get("age"), 22);
     }
 
+    @Test
+    public void testMergeKeepsOperands() {
+        Json json1 = Json.from("{\"name\":\"Anna\"}");
+        Json json2 = Json.from("{\"age\": 22}");
+
+        assertEquals("{\"name\":\"Anna\",\"age\":22}", json1.merge(json2).asString());
+        assertEquals("{\"name\":\"Anna\"}", json1.asString());
+        assertEquals("{\"age\":22}", json2.asString());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        Json json = Json.from("{\"name\":\"Anna\"}");
+
+        assertSame(json.asJsonNodeUnsafe(), json.copy().asJsonNodeUnsafe());
+        assertNotSame(json.asJsonNodeUnsafe(), json.asJsonNode());
+
+        ObjectNode external = Json.createObjectNode().put("name", "Anna");
+        Json wrapped = Json.from(external);
+        Json copied = wrapped.copy();
+        external.put("name", "Bala");
+
+        assertEquals("{\"name\":\"Bala\"}", wrapped.asString());
+        assertEquals("{\"name\":\"Anna\"}", copied.asString());
+    }
+
+    @Test
+    public void testLazy() {
+        String string = "{\"name\": \"Anna\", \"age\": 22}";
+
+        Json json = Json.lazy(string);
+        assertFalse(json.isParsed());
+        assertSame(string, json.asString());
+        assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), json.asBytes());
+        assertFalse(json.isParsed());
+
+        assertEquals(Json.from(string), json);
+        assertEquals("Anna", json.asMap().get("name"));
+        assertTrue(json.isParsed());
+        assertSame(string, json.asString());
+
+        Json bytes = Json.lazy(string.getBytes(StandardCharsets.UTF_8));
+        assertEquals(string, bytes.asString());
+        assertEquals(22, bytes.asJsonNode().get("age").intValue());
+        assertEquals("{\"name\":\"Anna\",\"age\":23}", bytes.merge(Json.from("{\"age\":23}")).asString());
+
+        assertEquals("plain text", Json.lazy("plain text").asJsonNode().textValue());
+    }
+
+    @Test
+    public void testLazyTextualLikeEager() {
+        for (String string : Arrays.asList("\"abc\"", " \"a\\\"b\" ", "plain text")) {
+            Json eager = Json.from(string);
+            Json lazy = Json.lazy(string);
+            assertEquals(eager.asString(), lazy.asString());
+            assertEquals(eager, lazy);
+
+            StringWriter eagerOut = new StringWriter();
+            StringWriter lazyOut = new StringWriter();
+            eager.writeTo(eagerOut);
+            Json.lazy(string).writeTo(lazyOut);
+            assertEquals(eagerOut.toString(), lazyOut.toString());
+        }
+        assertEquals("abc", Json.lazy("\"abc\"".getBytes(StandardCharsets.UTF_8)).asString());
+    }
+
+    @Test
+    public void testLazyInvalidWritesLikeEager() throws IOException {
+        for (String string : Arrays.asList("hello world", "{\"name\"", "", "{\"name\":\"Anna\"}")) {
+            Json eager = Json.from(string);
+            Json lazy = Json.lazy(string);
+            assertArrayEquals(eager.asBytes(), lazy.asBytes());
+            assertEquals(eager, Json.from(new String(lazy.asBytes(), StandardCharsets.UTF_8)));
+
+            ByteArrayOutputStream eagerOut = new ByteArrayOutputStream();
+            ByteArrayOutputStream lazyOut = new ByteArrayOutputStream();
+            eager.writeTo(eagerOut);
+            Json.lazy(string).writeTo(lazyOut);
+            assertArrayEquals(eagerOut.toByteArray(), lazyOut.toByteArray());
+
+            ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+            Json.lazy(string).writeTo(Channels.newChannel(channelOut));
+            assertArrayEquals(eagerOut.toByteArray(), channelOut.toByteArray());
+        }
+        assertEquals("\"hello world\"", new String(Json.lazy("hello world").asBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = JsonException.class)
+    public void testLazyInvalidBytes() {
+        Json.lazy("{\"name\"".getBytes(StandardCharsets.UTF_8)).asMap();
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        String string = "{\"name\":\"Anna\",\"tags\":[\"\u00e9\",1]}";
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        Json expected = Json.from(string);
+
+        assertEquals(expected, Json.from(new ByteArrayInputStream(bytes)));
+        assertEquals(expected, Json.from(new StringReader(string)));
+        assertEquals(expected, Json.from(Channels.newChannel(new ByteArrayInputStream(bytes))));
+
+        ByteBuffer heap = ByteBuffer.allocate(bytes.length + 2);
+        heap.put((byte) ' ').put(bytes).flip().position(1);
+        assertEquals(expected, Json.from(heap));
+        assertEquals(1, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(expected, Json.from(direct));
+        assertEquals(0, direct.position());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        expected.writeTo(stream);
+        assertArrayEquals(expected.asBytes(), stream.toByteArray());
+
+        StringWriter writer = new StringWriter();
+        expected.writeTo(writer);
+        assertEquals(string, writer.toString());
+
+        ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        Json.lazy(bytes).writeTo(Channels.newChannel(channel));
+        assertArrayEquals(bytes, channel.toByteArray());
+    }
+
+    @Test
+    public void testStreamLines() {
+        String lines = "{\"name\":\"A\"}\n[1,2]\n\n{\"name\":\"C\"}\n";
+        try (Stream<Json> stream = Json.streamLines(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(Arrays.asList("{\"name\":\"A\"}", "[1,2]", "{\"name\":\"C\"}"),
+                stream.map(Json::asString).collect(Collectors.toList()));
+        }
+
+        String users = "{\"name\":\"A\"}\n{\"name\":\"B\"}";
+        assertEquals(Arrays.asList(new User("A"), new User("B")),
+            Json.streamLines(new ByteArrayInputStream(users.getBytes(StandardCharsets.UTF_8)), User.class).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testStreamArray() {
+        String array = "[{\"name\":\"A\"}, {\"name\":\"B\"}, {\"name\":\"C\"}]";
+
+        assertEquals(3, Json.streamArray(new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8))).count());
+        assertEquals(Arrays.asList(new User("A"), new User("B"), new User("C")),
+            Json.streamArray(new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)), User.class).collect(Collectors.toList()));
+        assertEquals(0, Json.streamArray(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))).count());
+
+        try {
+            Json.streamArray(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+            fail();
+        } catch (JsonException expected) {
+            assertTrue(expected.getMessage().startsWith("ReadJsonFromArray"));
+        }
+    }
+
+    @Test
+    public void testStreamLinesFileInParallel() throws IOException {
+        Path file = Files.createTempFile("relax-json", ".ndjson");
+        try {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                lines.add(i % 100 == 0 ? "" : "{\"name\":\"user " + i + "\"}\r");
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8);
+
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                if (i % 100 != 0) {
+                    expected.add("user " + i);
+                }
+            }
+
+            assertEquals(expected, Json.streamLines(file, false)
+                .map(json -> json.asJsonNodeUnsafe().get("name").textValue()).collect(Collectors.toList()));
+            assertEquals(expected, Json.streamLines(file, User.class, true)
+                .map(User::getName).collect(Collectors.toList()));
+            assertEquals(expected, Json.<User>streamLines(file, Json.underMapper().constructType(User.class), true)
+                .map(User::getName).collect(Collectors.toList()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadValueAndWrite() {
+        String string = "{\"name\":\"Anna\"}";
+
+        assertEquals(new User("Anna"), Json.readValue(string, User.class));
+        assertEquals(new User("Anna"), Json.readValue(string.getBytes(StandardCharsets.UTF_8), User.class));
+        assertEquals(Collections.singletonList(new User("Anna")),
+            Json.readValue("[" + string + "]", Json.typeOfGeneric(List.class, User.class)));
+        assertEquals(string, Json.write(new User("Anna")));
+        assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), Json.writeAsBytes(new User("Anna")));
+        assertEquals("null", Json.write(null));
+    }
+
+    @Test
+    public void testCachedBindings() {
+        assertSame(Json.typeOfGeneric(Container.class, User.class), Json.typeOfGeneric(Container.class, User.class));
+        assertSame(Json.typeOfArray(User.class), Json.typeOfArray(User.class));
+
+        JsonBindings bindings = JsonBindings.of(Json.underMapper());
+        assertSame(bindings, JsonBindings.of(Json.underMapper()));
+        assertSame(bindings.readerFor(User.class), bindings.readerFor(User.class));
+        assertSame(bindings.writerFor(User.class), bindings.writerFor(User.class));
+
+        ObjectMapper userMapper = new ObjectMapper();
+        JsonBindings userBindings = JsonBindings.of(userMapper);
+        assertSame(userMapper, userBindings.getMapper());
+        assertSame(userBindings, JsonBindings.of(userMapper));
+        assertSame(bindings, JsonBindings.of(Json.underMapper()));
+        assertSame(userBindings, JsonBindings.of(userMapper));
+    }
+
+    static class Secret {
+    }
+
+    @Test
+    public void testRegisterPublishesSnapshot() throws IOException {
+        ObjectMapper before = JsonMappers.javaMapper();
+        Json parsed = Json.from("{\"name\":\"Anna\"}");
+
+        SimpleModule module = new SimpleModule("SecretModule");
+        module.addSerializer(Secret.class, new ToStringSerializer() {
+            @Override
+            public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeString("***");
+            }
+        });
+        JsonMappers.register(module);
+
+        assertNotSame(before, JsonMappers.javaMapper());
+        assertSame(JsonMappers.javaMapper(), Json.underMapper());
+        assertEquals("\"***\"", Json.write(new Secret()));
+        assertEquals("{}", JsonBindings.of(before).writerFor(Secret.class).writeValueAsString(new Secret())
+            .replace(" ", ""));
+        assertEquals("{\"name\":\"Anna\"}", parsed.asString());
+
+        ObjectMapper scalaBefore = JsonMappers.scalaMapper();
+        ObjectMapper javaBefore = JsonMappers.javaMapper();
+        JsonMappers.registerScala(new SimpleModule("ScalaOnlyModule"));
+        assertSame(javaBefore, JsonMappers.javaMapper());
+        assertNotSame(scalaBefore, JsonMappers.scalaMapper());
+    }
+
+    @Test
+    public void testFast() {
+        User user = new User("Anna");
+        String json = Json.fast().write(user);
+
+        assertEquals("{\"name\":\"Anna\"}", json);
+        assertEquals(user, Json.fast().readValue(json, User.class));
+        assertEquals(user, Json.fast().from(json).asObject(User.class));
+        assertNotSame(JsonMappers.javaMapper(), JsonMappers.fastMapper());
+        assertSame(JsonMappers.fastMapper(), JsonMappers.fastMapper());
+    }
+
+    @Test
+    public void testBinaryFormats() {
+        Json json = Json.from("{\"name\":\"Anna\",\"age\":18,\"tags\":[\"a\",\"b\"],\"ratio\":0.5}");
+
+        byte[] smile = json.asSmile();
+        byte[] cbor = json.asCbor();
+        assertEquals(':', smile[0]);
+        assertEquals(json, Json.fromSmile(smile));
+        assertEquals(json, Json.fromCbor(cbor));
+        assertEquals(json.asString(), Json.fromCbor(cbor).asString());
+        assertSame(JsonMappers.smileMapper(), JsonMappers.smileMapper());
+
+        try {
+            Json.fromSmile("{}".getBytes(StandardCharsets.UTF_8));
+            fail();
+        } catch (JsonException ex) {
+            assertTrue(ex.getMessage().startsWith("ReadJsonFromSmile"));
+        }
+    }
+
+    static class Conflicting {
+        @JsonCreator
+        Conflicting(@JsonProperty("name") String name) {
+        }
+
+        @JsonCreator
+        Conflicting(@JsonProperty("age") Integer age) {
+        }
+    }
+
+    @Test
+    public void testWarmUp() {
+        JsonWarmUpReport report = JsonMappers.warmUp(User.class, Container.class);
+        assertTrue(report.isSuccess());
+        assertEquals(Arrays.asList(User.class, Container.class), new ArrayList<>(report.getNanos().keySet()));
+        assertTrue(report.toString().startsWith("Warmed up 2 types in "));
+
+        JsonWarmUpReport parallel = JsonMappers.warmUpInParallel(User.class, Conflicting.class);
+        assertFalse(parallel.isSuccess());
+        assertEquals(2, parallel.getNanos().size());
+        assertEquals(Collections.singleton(Conflicting.class), parallel.getFailures().keySet());
+        assertTrue(parallel.getFailures().get(Conflicting.class) instanceof JsonException);
+    }
+
     @Test
     public void testEqual() {
         String string = "{\"name\":\"Anna\"}";
@@ -10,21 +10,19 @@ import com.infilos.relax.json.{JsonFactory, JsonMappers}
   */
 trait Json4s extends JsonMappers with JsonFactory {
 
-  override def underMapper(): ObjectMapper = JsonMappers.ScalaMapper
+  override def underMapper(): ObjectMapper = JsonMappers.scalaMapper()
 
   def registerModule(module: Module): Unit = {
-    JsonMappers.JavaMapper.registerModule(module)
-    JsonMappers.ScalaMapper.registerModule(module)
+    JsonMappers.register(module)
   }
 
   def registerModules(modules: Module*): Unit = {
-    JsonMappers.JavaMapper.registerModules(modules: _*)
-    JsonMappers.ScalaMapper.registerModules(modules: _*)
+    JsonMappers.register(modules: _*)
   }
 }
 
 object Json4s extends Json4s {
   {
-    JsonMappers.ScalaMapper.registerModule(DefaultScalaModule)
+    JsonMappers.registerScala(DefaultScalaModule)
   }
 }
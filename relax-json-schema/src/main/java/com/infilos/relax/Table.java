@@ -12,7 +12,9 @@ import org.apache.commons.csv.CSVPrinter;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * <pre>
@@ -104,6 +106,42 @@ public class Table {
         return table;
     }
 
+    /**
+     * Create Table from a {@link java.nio.file.Path} of a CSV or JSON file. CSV data is streamed from the file on every iteration instead of being held in memory.
+     *
+     * @param dataSource the CSV or JSON file
+     * @param schema     table schema, can be null
+     * @param format     The expected CSVFormat if dataSource is a CSV file; ignored for JSON data
+     * @throws Exception if either reading or parsing throws an Exception
+     */
+    public static Table fromSource(Path dataSource, Schema schema, CSVFormat format) throws Exception {
+        Table table = new Table();
+        table.dataSource = DataSource.create(dataSource);
+        table.schema = schema;
+        if (null != format) {
+            table.setCsvFormat(format);
+        }
+        return table;
+    }
+
+    /**
+     * Create Table from a {@link java.nio.file.Path} of a UTF-8 CSV file, which is memory-mapped and parsed in chunks, see {@link MappedCsvDataSource}.
+     *
+     * @param dataSource the CSV file
+     * @param schema     table schema, can be null
+     * @param format     The expected CSVFormat, can be null
+     * @throws Exception if either reading or parsing throws an Exception
+     */
+    public static Table fromMappedCsv(Path dataSource, Schema schema, CSVFormat format) throws Exception {
+        Table table = new Table();
+        table.dataSource = new MappedCsvDataSource(dataSource);
+        table.schema = schema;
+        if (null != format) {
+            table.setCsvFormat(format);
+        }
+        return table;
+    }
+
     /**
      * Create Table using either a CSV or JSON array-containing string and without either a Schema or a CSVFormat.
      *
@@ -203,6 +241,96 @@ public class Table {
         return new TableIterator<>(this, true, extended, cast, relations);
     }
 
+    /**
+     * Streams the rows like {@link #read(boolean)} reads them, failed rows end the stream.
+     */
+    public Stream<Object[]> stream(boolean cast) throws Exception {
+        return stream(cast, null);
+    }
+
+    /**
+     * Streams the rows like {@link #read(boolean)} reads them, see {@link TableStream}.
+     *
+     * @param errors the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public Stream<Object[]> stream(boolean cast, List<Exception> errors) throws Exception {
+        checkCast(cast);
+        return TableStream.rows(this, cast, false, true, errors);
+    }
+
+    /**
+     * Streams the rows in parallel, each row is cast and checked against the constraints on the thread reading it, see {@link TableStream}.
+     *
+     * @param ordered false to drop the encounter order of the rows
+     * @param errors  the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public Stream<Object[]> parallelStream(boolean cast, boolean ordered, List<Exception> errors) throws Exception {
+        checkCast(cast);
+        return TableStream.rows(this, cast, true, ordered, errors);
+    }
+
+    /**
+     * Streams the rows as Maps of header names to values, like {@link #keyedIterator(boolean, boolean, boolean)} returns them.
+     *
+     * @param errors the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public Stream<Map<String, Object>> keyedStream(boolean cast, List<Exception> errors) throws Exception {
+        checkCast(cast);
+        return TableStream.keyedRows(this, cast, false, true, errors);
+    }
+
+    /**
+     * Streams the rows as Maps of header names to values in parallel, see {@link #parallelStream(boolean, boolean, List)}.
+     *
+     * @param ordered false to drop the encounter order of the rows
+     * @param errors  the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public Stream<Map<String, Object>> keyedParallelStream(boolean cast, boolean ordered, List<Exception> errors) throws Exception {
+        checkCast(cast);
+        return TableStream.keyedRows(this, cast, true, ordered, errors);
+    }
+
+    /**
+     * Streams the rows as Beans, like {@link #iterator(Class, boolean)} returns them.
+     *
+     * @param beanType the Bean class with a Schema of annotated fields
+     * @param errors   the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public <T> Stream<T> stream(Class<T> beanType, List<Exception> errors) throws Exception {
+        return TableStream.beans(this, beanType, false, true, errors);
+    }
+
+    /**
+     * Streams the rows as Beans in parallel, with one converter per thread, see {@link TableStream}.
+     *
+     * @param beanType the Bean class with a Schema of annotated fields
+     * @param ordered  false to drop the encounter order of the rows
+     * @param errors   the list to collect failed rows in, or null to end the stream on the first failed row
+     */
+    public <T> Stream<T> parallelStream(Class<T> beanType, boolean ordered, List<Exception> errors) throws Exception {
+        return TableStream.beans(this, beanType, true, ordered, errors);
+    }
+
+    /**
+     * Returns the raw rows in data source column order, split by chunks for parallel streams if the data source is a {@link MappedCsvDataSource}.
+     */
+    public Spliterator<String[]> spliterator() throws Exception {
+        return dataSource.spliterator();
+    }
+
+    /**
+     * Returns the raw rows in data source column order, parsed ahead on the pool of a {@link MappedCsvDataSource},
+     * or read on the calling thread from other data sources.
+     *
+     * @param ordered true to keep the order of the file, false to return rows as soon as their chunk is parsed
+     */
+    public Iterator<String[]> parallelIterator(boolean ordered) throws Exception {
+        if (dataSource instanceof MappedCsvDataSource) {
+            return ((MappedCsvDataSource) dataSource).parallelIterator(ordered);
+        }
+        return dataSource.iterator();
+    }
+
     public Map<Integer, Integer> getSchemaHeaderMapping() {
         try {
             if (null == schema) {
@@ -246,24 +374,32 @@ public class Table {
     }
 
     public List<Object[]> read(boolean cast) throws Exception {
-        if (cast && (null == schema)) {
-            throw new TableSchemaException("Cannot cast without a schema");
-        }
-        if (cast && !this.schema.hasFields()) {
-            throw new InvalidCastException("Schema has no fields");
-        }
+        checkCast(cast);
 
         List<Object[]> rows = new ArrayList<>();
 
         Iterator<Object[]> iter = this.iterator(false, false, cast, false);
-        while (iter.hasNext()) {
-            Object[] row = iter.next();
-            rows.add(row);
+        try {
+            while (iter.hasNext()) {
+                Object[] row = iter.next();
+                rows.add(row);
+            }
+        } finally {
+            CloseableIterator.close(iter);
         }
 
         return rows;
     }
 
+    private void checkCast(boolean cast) {
+        if (cast && (null == schema)) {
+            throw new TableSchemaException("Cannot cast without a schema");
+        }
+        if (cast && !this.schema.hasFields()) {
+            throw new InvalidCastException("Schema has no fields");
+        }
+    }
+
     public List<Object[]> read() throws Exception {
         boolean cast = (null != schema);
         return read(cast);
@@ -293,8 +429,10 @@ public class Table {
     }
 
     private void writeCSVData(Map<Integer, Integer> mapping, CSVPrinter csvPrinter) {
+        Iterator<Object[]> iter = null;
         try {
-            this.iterator(false, false, false, false).forEachRemaining((record) -> {
+            iter = this.iterator(false, false, false, false);
+            iter.forEachRemaining((record) -> {
                 String[] sortedRec = new String[record.length];
                 for (int i = 0; i < record.length; i++) {
                     sortedRec[mapping.get(i)] = (String) record[i];
@@ -309,6 +447,8 @@ public class Table {
             if (ex instanceof RuntimeException)
                 throw (RuntimeException) ex;
             throw new RuntimeException(ex);
+        } finally {
+            CloseableIterator.close(iter);
         }
     }
 
@@ -469,6 +609,8 @@ public class Table {
         this.format = format;
         if ((null != dataSource) && (dataSource instanceof CsvDataSource)) {
             ((CsvDataSource) dataSource).setFormat(format);
+        } else if ((null != dataSource) && (dataSource instanceof MappedCsvDataSource)) {
+            ((MappedCsvDataSource) dataSource).setFormat(format);
         }
         return this;
     }
@@ -537,10 +679,15 @@ public class Table {
             equals = equals & data.size() == oData.size();
             Iterator<Object[]> iterator = this.iterator(false, false, false, true);
             Iterator<Object[]> oIter = ((Table) o).iterator(false, false, false, true);
-            while (iterator.hasNext()) {
-                Object[] arr = iterator.next();
-                Object[] oArr = oIter.next();
-                equals = equals & Arrays.equals(arr, oArr);
+            try {
+                while (iterator.hasNext()) {
+                    Object[] arr = iterator.next();
+                    Object[] oArr = oIter.next();
+                    equals = equals & Arrays.equals(arr, oArr);
+                }
+            } finally {
+                CloseableIterator.close(iterator);
+                CloseableIterator.close(oIter);
             }
             return equals;
         } catch (Exception ex) {
@@ -0,0 +1,20 @@
+package com.infilos.relax.error;
+
+/**
+ * A row of a Table stream which failed to cast or to convert, collected instead of ending the stream.
+ */
+public class TableRowException extends TableSchemaException {
+    private final String[] row;
+
+    public TableRowException(String[] row, Throwable cause) {
+        super(cause);
+        this.row = row;
+    }
+
+    /**
+     * Returns the values of the row as read from the data source, in data source column order.
+     */
+    public String[] getRow() {
+        return row;
+    }
+}
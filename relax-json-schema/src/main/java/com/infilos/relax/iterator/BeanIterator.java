@@ -38,25 +38,31 @@ public class BeanIterator<T> extends TableIterator<T> {
         init(table);
     }
 
+    BeanIterator(Class<T> beanType) {
+        this.type = beanType;
+    }
+
     /**
-     * Overrides {@link TableIterator#init(Table)} and instead of copying the Schema from the Table, infers a Schema from the Bean type.
+     * Overrides {@link TableIterator#prepare(Table)} and instead of copying the Schema from the Table, infers a Schema from the Bean type.
      *
      * @param table The Table to iterate data on
      * @throws Exception in case header parsing, Schema inferral or Schema validation fails
      */
     @Override
-    void init(Table table) throws Exception {
+    void prepare(Table table) throws Exception {
         mapping = table.getSchemaHeaderMapping();
         headers = table.getHeaders();
         schema = BeanSchema.infer(type);
         table.validate();
-        wrappedIterator = table.getDataSourceFormat().iterator();
     }
 
+    /**
+     * Converts a row into a new Bean, the formats of the Schema are set from the rows, so each thread needs its own iterator.
+     * Beans are never reused.
+     */
     @Override
-    public T next() {
+    T convert(String[] row, T reuse) {
         T retVal;
-        final String[] row = super.wrappedIterator.next();
 
         try {
             retVal = type.newInstance();
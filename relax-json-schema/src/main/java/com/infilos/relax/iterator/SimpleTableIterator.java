@@ -15,11 +15,22 @@ public class SimpleTableIterator extends TableIterator<String[]> {
 
     @Override
     public String[] next() {
+        return next(null);
+    }
+
+    /**
+     * Reorders the next row into the given row if it has the same length, instead of a new one.
+     *
+     * @param reuse the row returned by the previous call, or null for a new row
+     * @return the row reordered into
+     */
+    @Override
+    public String[] next(String[] reuse) {
         String[] row = this.wrappedIterator.next();
         if (null != schema) {
-            String[] newRow = new String[row.length];
+            String[] newRow = (null != reuse && reuse.length == row.length) ? reuse : new String[row.length];
             for (int i = 0; i < row.length; i++) {
-                newRow[mapping.get(i)] = row[i];
+                newRow[columns[i]] = row[i];
             }
             return newRow;
         } else {
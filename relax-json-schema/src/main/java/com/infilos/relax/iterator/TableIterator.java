@@ -3,12 +3,14 @@ package com.infilos.relax.iterator;
 import com.infilos.relax.Table;
 import com.infilos.relax.field.Field;
 import com.infilos.relax.Schema;
+import com.infilos.relax.error.TableSchemaException;
+import com.infilos.relax.source.CloseableIterator;
 
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-public class TableIterator<T> implements Iterator<T> {
+public class TableIterator<T> implements CloseableIterator<T> {
     protected String[] headers = null;
     protected Schema schema = null;
     protected Iterator<String[]> wrappedIterator = null;
@@ -17,6 +19,8 @@ public class TableIterator<T> implements Iterator<T> {
     protected boolean cast = true;
     protected boolean relations = false;
     protected Map<Integer, Integer> mapping = null;
+    protected int[] columns = null;
+    protected Field<?>[] fields = null;
     protected int index = 0;
 
     TableIterator() {
@@ -39,11 +43,19 @@ public class TableIterator<T> implements Iterator<T> {
     }
 
     void init(Table table) throws Exception {
+        prepare(table);
+        this.wrappedIterator = table.getDataSourceFormat().iterator();
+    }
+
+    /**
+     * Reads the header mapping, headers and Schema of the Table and validates it, without reading the data.
+     */
+    void prepare(Table table) throws Exception {
         this.mapping = table.getSchemaHeaderMapping();
         this.headers = table.getHeaders();
         this.schema = table.getSchema();
         table.validate();
-        this.wrappedIterator = table.getDataSourceFormat().iterator();
+        plan();
     }
 
     @Override
@@ -56,63 +68,93 @@ public class TableIterator<T> implements Iterator<T> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Closes the data source iterator, for loops which stop before the last row.
+     */
+    @Override
+    public void close() {
+        CloseableIterator.close(this.wrappedIterator);
+    }
+
     @Override
-    @SuppressWarnings("unchecked")
     public T next() {
-        String[] row = this.wrappedIterator.next();
-        int rowLength = row.length;
-        if (null != this.schema) {
-            rowLength = Math.max(row.length, this.schema.getFields().size());
-        }
-        Map<String, Object> keyedRow = new HashMap<>();
-        Object[] extendedRow;
-        Object[] castRow = new Object[rowLength];
-        Object[] plainRow = new Object[rowLength];
+        return convert(this.wrappedIterator.next());
+    }
+
+    /**
+     * Converts the next row into the given row instead of a new one, when returning rows as Object arrays of the Schema
+     * length or as Maps, so a scan allocates no rows. Other rows, and the rows of extended iterators, are new as with {@link #next()}.
+     *
+     * @param reuse the row returned by the previous call, or null for a new row
+     * @return the row converted into
+     */
+    public T next(T reuse) {
+        return convert(this.wrappedIterator.next(), reuse);
+    }
 
+    /**
+     * Converts a row of the data source, {@link TableStream} calls it from many threads unless extended.
+     */
+    T convert(String[] row) {
+        return convert(row, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    T convert(String[] row, T reuse) {
         // If there's a schema, attempt to cast the row.
         if (this.schema != null) {
-            for (int i = 0; i < rowLength; i++) {
-                Field<?> field = this.schema.getFields().get(i);
-                Integer mappedKey = mapping.get(i);
+            if (row.length > fields.length) {
+                throw new TableSchemaException("Row has " + row.length + " values for " + fields.length + " fields");
+            }
+            boolean keyedOnly = !extended && keyed;
+            Map<String, Object> keyedRow = null;
+            Object[] valueRow = null;
+            if (keyedOnly) {
+                keyedRow = (reuse instanceof Map) ? (Map<String, Object>) reuse : new HashMap<>(capacity(fields.length));
+                keyedRow.clear();
+            } else if (!extended && reuse instanceof Object[] && ((Object[]) reuse).length == fields.length) {
+                valueRow = (Object[]) reuse;
+            } else {
+                valueRow = new Object[fields.length];
+            }
+
+            for (int i = 0; i < fields.length; i++) {
+                int column = columns[i];
                 Object val = null;
-                // null keys can happen for JSON arrays of JSON objects because
-                // null values will lead to missing entries
-                if (null != mappedKey) {
-                    // if the last column(s) contain nulls, prevent an ArrayIndexOutOfBoundsException
-                    if (mappedKey < row.length) {
-                        String rawVal = row[mappedKey];
-                        val = field.castValue(rawVal);
-                    }
+                // missing columns can happen for JSON arrays of JSON objects because
+                // null values will lead to missing entries, and if the last column(s)
+                // contain nulls, prevent an ArrayIndexOutOfBoundsException
+                if (column >= 0 && column < row.length) {
+                    val = fields[i].castValue(row[column]);
                 }
-                if (!extended && keyed) {
+                if (keyedOnly) {
                     keyedRow.put(this.headers[i], val);
                 } else if (cast || extended) {
-                    castRow[i] = val;
+                    valueRow[i] = val;
                 } else {
-                    plainRow[i] = field.formatObjectAsString(val);
+                    valueRow[i] = fields[i].formatObjectAsString(val);
                 }
             }
 
             if (extended) {
-                extendedRow = new Object[]{index, this.headers, castRow};
+                Object[] extendedRow = new Object[]{index, this.headers, valueRow};
                 index++;
                 return (T) extendedRow;
             } else if (keyed) {
                 return (T) keyedRow;
-            } else if (cast) {
-                return (T) castRow;
             } else {
-                return (T) plainRow;
+                return (T) valueRow;
             }
         } else {
             // Enter here if no Schema has been defined.
             if (extended) {
-                extendedRow = new Object[]{index, this.headers, row};
+                Object[] extendedRow = new Object[]{index, this.headers, row};
                 index++;
                 return (T) extendedRow;
 
             } else if (keyed) {
-                keyedRow = new HashMap<>();
+                Map<String, Object> keyedRow = (reuse instanceof Map) ? (Map<String, Object>) reuse : new HashMap<>(capacity(row.length));
+                keyedRow.clear();
                 for (int i = 0; i < row.length; i++) {
                     keyedRow.put(this.headers[i], row[i]);
                 }
@@ -123,4 +165,26 @@ public class TableIterator<T> implements Iterator<T> {
             }
         }
     }
+
+    /**
+     * Compiles the header mapping and the Schema fields into arrays indexed by Schema column,
+     * the data column of a Schema column is -1 if it is missing from the data.
+     */
+    void plan() {
+        this.fields = (null == schema)
+            ? new Field<?>[0]
+            : schema.getFields().toArray(new Field<?>[0]);
+        int width = (null == schema)
+            ? ((null == mapping) ? 0 : mapping.size())
+            : fields.length;
+        this.columns = new int[width];
+        for (int i = 0; i < width; i++) {
+            Integer column = (null == mapping) ? null : mapping.get(i);
+            columns[i] = (null == column) ? -1 : column;
+        }
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
 }
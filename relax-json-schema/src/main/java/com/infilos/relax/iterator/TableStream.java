@@ -0,0 +1,123 @@
+package com.infilos.relax.iterator;
+
+import com.infilos.relax.Table;
+import com.infilos.relax.error.TableRowException;
+import com.infilos.relax.error.TableSchemaException;
+import com.infilos.relax.source.CloseableIterator;
+import com.infilos.relax.source.DataSource;
+import com.infilos.relax.source.MappedCsvDataSource;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <pre>
+ * Streams of Table rows, converted like the {@link TableIterator} does, over the Spliterator of the Table data source.
+ * In parallel streams each row is cast and checked against the field constraints on the thread which reads it,
+ * data sources which read in chunks ({@link com.infilos.relax.source.MappedCsvDataSource}) are also parsed in parallel.
+ *
+ * Rows which fail are either thrown, ending the stream, or added to a list of errors as {@link TableRowException} and left out.
+ * Streams which may stop early, like findFirst() or a failed row, are closed to close the data source, best in try-with-resources.
+ * </pre>
+ */
+public final class TableStream {
+
+    private TableStream() {
+    }
+
+    /**
+     * Streams rows as Object arrays in Schema column order.
+     *
+     * @param table    the Table to stream
+     * @param cast     true to cast the values with the Schema, false to return them formatted as strings
+     * @param parallel true for a parallel stream
+     * @param ordered  false to drop the encounter order, which lets parallel terminal operations skip reordering
+     * @param errors   the list to add failed rows to, synchronized on while adding, or null to throw
+     * @return the stream of rows
+     * @throws Exception if the Table does not validate or the data source can not be read
+     */
+    public static Stream<Object[]> rows(Table table, boolean cast, boolean parallel, boolean ordered, List<Exception> errors) throws Exception {
+        TableIterator<Object[]> converter = new TableIterator<>();
+        converter.cast = cast;
+        converter.prepare(table);
+        return stream(table, converter::convert, parallel, ordered, errors);
+    }
+
+    /**
+     * Streams rows as Maps of header names to values, see {@link #rows(Table, boolean, boolean, boolean, List)}.
+     */
+    public static Stream<Map<String, Object>> keyedRows(Table table, boolean cast, boolean parallel, boolean ordered, List<Exception> errors) throws Exception {
+        TableIterator<Map<String, Object>> converter = new TableIterator<>();
+        converter.keyed = true;
+        converter.cast = cast;
+        converter.prepare(table);
+        return stream(table, converter::convert, parallel, ordered, errors);
+    }
+
+    /**
+     * Streams rows as Beans, with a {@link BeanIterator} per thread, see {@link #rows(Table, boolean, boolean, boolean, List)}.
+     */
+    public static <T> Stream<T> beans(Table table, Class<T> beanType, boolean parallel, boolean ordered, List<Exception> errors) throws Exception {
+        // validates once on the calling thread
+        new BeanIterator<>(beanType).prepare(table);
+
+        ThreadLocal<BeanIterator<T>> converters = ThreadLocal.withInitial(() -> {
+            BeanIterator<T> converter = new BeanIterator<>(beanType);
+            try {
+                converter.prepare(table);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new TableSchemaException(ex);
+            }
+            return converter;
+        });
+        return stream(table, row -> converters.get().convert(row), parallel, ordered, errors);
+    }
+
+    private static <T> Stream<T> stream(Table table,
+                                        Function<String[], T> converter,
+                                        boolean parallel,
+                                        boolean ordered,
+                                        List<Exception> errors) throws Exception {
+        Stream<String[]> rows = open(table, parallel);
+        if (!ordered) {
+            rows = rows.unordered();
+        }
+        if (null == errors) {
+            return rows.map(converter);
+        }
+        return rows
+            .map(row -> {
+                try {
+                    return converter.apply(row);
+                } catch (RuntimeException ex) {
+                    synchronized (errors) {
+                        errors.add(new TableRowException(row, ex));
+                    }
+                    return null;
+                }
+            })
+            .filter(Objects::nonNull);
+    }
+
+    /**
+     * Streams the raw rows, closing the data source iterator when the stream is closed.
+     */
+    private static Stream<String[]> open(Table table, boolean parallel) throws Exception {
+        DataSource dataSource = table.getDataSourceFormat();
+        if (dataSource instanceof MappedCsvDataSource) {
+            return StreamSupport.stream(table.spliterator(), parallel);
+        }
+        Iterator<String[]> iterator = dataSource.iterator();
+        Spliterator<String[]> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, parallel).onClose(() -> CloseableIterator.close(iterator));
+    }
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public abstract class AbstractDataSource implements DataSource {
@@ -29,7 +30,12 @@ public abstract class AbstractDataSource implements DataSource {
     @Override
     public List<String[]> data() throws Exception{
         List<String[]> data = new ArrayList<>();
-        iterator().forEachRemaining(data::add);
+        Iterator<String[]> iterator = iterator();
+        try {
+            iterator.forEachRemaining(data::add);
+        } finally {
+            CloseableIterator.close(iterator);
+        }
         return data;
     }
 
@@ -0,0 +1,29 @@
+package com.infilos.relax.source;
+
+import java.util.Iterator;
+
+/**
+ * An Iterator holding an open resource, like the file of a data source, which is closed after the last element or by {@link #close()}.
+ * Callers which may stop early close it, see {@link #close(Iterator)}.
+ *
+ * @param <T> the element type
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Releases the resource, closing twice or after the last element has no effect.
+     */
+    @Override
+    void close();
+
+    /**
+     * Closes given iterator if it holds a resource.
+     *
+     * @param iterator any iterator, can be null
+     */
+    static void close(Iterator<?> iterator) {
+        if (iterator instanceof CloseableIterator) {
+            ((CloseableIterator<?>) iterator).close();
+        }
+    }
+}
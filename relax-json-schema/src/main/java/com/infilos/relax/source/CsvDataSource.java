@@ -1,6 +1,5 @@
 package com.infilos.relax.source;
 
-import com.google.common.collect.Iterators;
 import com.infilos.relax.error.TableSchemaException;
 import com.infilos.relax.util.JsonUtil;
 import org.apache.commons.csv.CSVFormat;
@@ -9,14 +8,21 @@ import org.apache.commons.csv.CSVRecord;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 public class CsvDataSource extends AbstractDataSource {
@@ -54,6 +60,25 @@ public class CsvDataSource extends AbstractDataSource {
         super(dataSource, workDir);
     }
 
+    /**
+     * Constructor from a file, which is parsed while iterating and opened again for every iteration, so it is never held in memory.
+     * A BOM is detected and skipped.
+     *
+     * @param dataSource the CSV file
+     */
+    public CsvDataSource(Path dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Constructor from a source of readers, like {@link #CsvDataSource(Path)} a new reader is requested for every iteration.
+     *
+     * @param dataSource opens a new reader of the CSV data on each call, the reader is closed once parsed
+     */
+    public CsvDataSource(Callable<? extends Reader> dataSource) {
+        this.dataSource = dataSource;
+    }
+
     CsvDataSource(String dataSource) {
         super(dataSource);
     }
@@ -69,20 +94,47 @@ public class CsvDataSource extends AbstractDataSource {
             : DataSource.getDefaultCsvFormat();
     }
 
+    /**
+     * Returns the records of a new parser, which is closed once the last record is read or the iterator is closed.
+     */
     @Override
-    public Iterator<String[]> iterator() throws Exception {
-        Iterator<CSVRecord> iterCSVRecords = this.getCSVParser().iterator();
-
-        return Iterators.transform(iterCSVRecords, (CSVRecord input) -> {
-            Iterator<String> iterCols = input.iterator();
+    public CloseableIterator<String[]> iterator() throws Exception {
+        CSVParser parser = this.getCSVParser();
+        Iterator<CSVRecord> iterCSVRecords = parser.iterator();
+
+        return new CloseableIterator<String[]>() {
+            @Override
+            public boolean hasNext() {
+                if (!parser.isClosed() && iterCSVRecords.hasNext()) {
+                    return true;
+                }
+                close();
+                return false;
+            }
 
-            List<String> cols = new ArrayList<>();
-            while (iterCols.hasNext()) {
-                cols.add(iterCols.next());
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CSVRecord input = iterCSVRecords.next();
+                String[] cols = new String[input.size()];
+                for (int i = 0; i < cols.length; i++) {
+                    cols[i] = input.get(i);
+                }
+
+                return cols;
             }
 
-            return cols.toArray(new String[0]);
-        });
+            @Override
+            public void close() {
+                try {
+                    parser.close();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
     }
 
     @Override
@@ -90,7 +142,10 @@ public class CsvDataSource extends AbstractDataSource {
         if (null == headers) {
             // Get a copy of the header map that iterates in column order.
             // The map keys are column names. The map values are 0-based indices.
-            Map<String, Integer> headerMap = this.getCSVParser().getHeaderMap();
+            Map<String, Integer> headerMap;
+            try (CSVParser parser = this.getCSVParser()) {
+                headerMap = parser.getHeaderMap();
+            }
 
             // Generate list of keys
             List<String> headerList = new ArrayList<>();
@@ -108,6 +163,7 @@ public class CsvDataSource extends AbstractDataSource {
      * Retrieve the CSV Parser. The parser works record wise. It is not possible to go back, once a record has been parsed from the input stream.
      * Because of this, CSVParser needs to be recreated every time:
      *   https://commons.apache.org/proper/commons-csv/apidocs/index.html?org/apache/commons/csv/CSVParser.html
+     * Files are parsed from a new reader every time as well, instead of reading their contents into memory.
      * </pre>
      *
      * @return a CSVParser instance
@@ -124,12 +180,11 @@ public class CsvDataSource extends AbstractDataSource {
             // If it's a relative path then build the full path by using the working directory.
             // Caution: here, we cannot simply use provided paths, we have to check
             // they are neither absolute path or relative parent paths (../)
-            String lines = readFileContents(((File) dataSource).getPath());
-
-            // Get the parser.
-            //return CSVFormat.RFC4180.withHeader().parse(fr);
-            return CSVParser.parse(lines, format);
-
+            return parse(DataSource.openFile(((File) dataSource).getPath(), workDir), format);
+        } else if (dataSource instanceof Path) {
+            return parse(DataSource.openSkippingBOM(Files.newInputStream((Path) dataSource)), format);
+        } else if (dataSource instanceof Callable) {
+            return parse((Reader) ((Callable<?>) dataSource).call(), format);
         } else if (dataSource instanceof URL) {
             return CSVParser.parse((URL) dataSource, StandardCharsets.UTF_8, format);
         } else {
@@ -137,6 +192,15 @@ public class CsvDataSource extends AbstractDataSource {
         }
     }
 
+    private static CSVParser parse(Reader reader, CSVFormat format) throws IOException {
+        try {
+            return new CSVParser(reader, format);
+        } catch (IOException | RuntimeException ex) {
+            reader.close();
+            throw ex;
+        }
+    }
+
     @Override
     public boolean hasReliableHeaders() {
         try {
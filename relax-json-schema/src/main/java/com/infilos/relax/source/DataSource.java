@@ -11,6 +11,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -31,6 +33,17 @@ public interface DataSource {
      */
     Iterator<String[]> iterator() throws Exception;
 
+    /**
+     * Returns a Spliterator over the rows, which does not split unless the data source is read in parts.
+     *
+     * @return Spliterator over the data
+     *
+     * @throws Exception thrown if reading the data fails
+     */
+    default Spliterator<String[]> spliterator() throws Exception {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
     /**
      * Returns the whole data as a List of String arrays, each List entry is one row
      *
@@ -72,17 +85,64 @@ public interface DataSource {
     }
 
     /**
-     * Factory method to instantiate either a {@link JsonArrayDataSource} or a {@link CsvDataSource} based on input format
+     * Factory method to instantiate either a {@link JsonArrayDataSource} or a {@link CsvDataSource} based on input format.
+     * CSV files are streamed from the file on every iteration instead of being read into memory.
      *
      * @return DataSource created from input File
      */
     static DataSource create(File input, File workDir) throws IOException {
+        try (BufferedReader reader = openFile(input.getPath(), workDir)) {
+            if (!startsWithJsonArray(reader)) {
+                return new CsvDataSource(input, workDir);
+            }
+        }
         String content = readFileContents(input.getPath(), workDir);
         return create(content);
     }
 
+    /**
+     * Factory method to instantiate either a {@link StreamingJsonArrayDataSource} or a {@link CsvDataSource} based on input format.
+     * Both are streamed from the file on every iteration instead of being read into memory.
+     *
+     * @return DataSource created from input Path
+     */
+    static DataSource create(Path input) throws IOException {
+        try (BufferedReader reader = openSkippingBOM(Files.newInputStream(input))) {
+            if (startsWithJsonArray(reader)) {
+                return new StreamingJsonArrayDataSource(input);
+            }
+        }
+        return new CsvDataSource(input);
+    }
+
+    /**
+     * Reads up to the first character which is not whitespace, and returns if it opens a JSON array.
+     */
+    static boolean startsWithJsonArray(Reader reader) throws IOException {
+        int c = reader.read();
+        while (c != -1 && Character.isWhitespace(c)) {
+            c = reader.read();
+        }
+        return c == '[';
+    }
+
     static String readFileContents(String path, File workDir) throws IOException {
-        String lines;
+        try (BufferedReader reader = openFile(path, workDir)) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    /**
+     * Opens the file of the path, either an entry of the zip file workDir or a file below workDir, and skips the BOM if found.
+     * Closing the returned reader closes the zip file as well.
+     *
+     * @param path    relative path of the file
+     * @param workDir the base directory or zip file
+     * @return a reader of the file contents
+     *
+     * @throws IOException if the file can not be opened
+     */
+    static BufferedReader openFile(String path, File workDir) throws IOException {
         if (workDir.getName().endsWith(".zip")) {
             //have to exchange the backslashes on Windows, as
             //zip paths are forward slashed.
@@ -90,21 +150,31 @@ public interface DataSource {
                 path = path.replaceAll("\\\\", "/");
             }
 
-            try (ZipFile zipFile = new ZipFile(workDir.getAbsolutePath())) {
+            ZipFile zipFile = new ZipFile(workDir.getAbsolutePath());
+            try {
                 ZipEntry zipEntry = zipFile.getEntry(path);
-                InputStream stream = zipFile.getInputStream(zipEntry);
-                lines = readSkippingBOM(stream);
+                return new BufferedReader(openSkippingBOM(zipFile.getInputStream(zipEntry))) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            zipFile.close();
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException ex) {
+                zipFile.close();
+                throw ex;
             }
-        } else {
-            // The path value can either be a relative path or a full path.
-            // If it's a relative path then build the full path by using the working directory.
-            // Caution: here, we cannot simply use provided paths, we have to check
-            // they are neither absolute path or relative parent paths (../)
-            Path resolvedPath = DataSource.toSecure(new File(path).toPath(), workDir.toPath());
-            lines = readSkippingBOM(Files.newInputStream(resolvedPath.toFile().toPath()));
         }
 
-        return lines;
+        // The path value can either be a relative path or a full path.
+        // If it's a relative path then build the full path by using the working directory.
+        // Caution: here, we cannot simply use provided paths, we have to check
+        // they are neither absolute path or relative parent paths (../)
+        Path resolvedPath = DataSource.toSecure(new File(path).toPath(), workDir.toPath());
+        return openSkippingBOM(Files.newInputStream(resolvedPath));
     }
 
     /**
@@ -116,14 +186,22 @@ public interface DataSource {
      * @throws IOException if underlying InputStream throws
      */
     static String readSkippingBOM(InputStream is) throws IOException {
-        String content;
-        try (ByteOrderMarkStrippingInputStream bims = new ByteOrderMarkStrippingInputStream(is);
-             InputStreamReader isr = new InputStreamReader(bims.skipBOM(), bims.getCharset());
-             BufferedReader rdr = new BufferedReader(isr)) {
-            content = rdr.lines().collect(Collectors.joining("\n"));
+        try (BufferedReader rdr = openSkippingBOM(is)) {
+            return rdr.lines().collect(Collectors.joining("\n"));
         }
+    }
 
-        return content;
+    /**
+     * Like {@link #readSkippingBOM(InputStream)}, but returns a buffered reader instead of the whole contents.
+     *
+     * @param is InputStream to read from
+     * @return a reader of the InputStream, closing it closes the InputStream
+     *
+     * @throws IOException if underlying InputStream throws
+     */
+    static BufferedReader openSkippingBOM(InputStream is) throws IOException {
+        ByteOrderMarkStrippingInputStream bims = new ByteOrderMarkStrippingInputStream(is);
+        return new BufferedReader(new InputStreamReader(bims.skipBOM(), bims.getCharset()));
     }
 
     static CSVFormat getDefaultCsvFormat() {
@@ -45,15 +45,20 @@ public class JsonArrayDataSource extends AbstractDataSource {
     public Iterator<String[]> iterator() {
         String[] headers = headers();
 
-        return Iterators.transform(((ArrayNode) dataSource).iterator(), (JsonNode input) -> {
-            List<String> values = new ArrayList<>();
-            for (String header : headers) {
-                JsonNode val = input.get(header);
-                values.add((null != val) ? val.asText("") : null);
-            }
+        return Iterators.transform(((ArrayNode) dataSource).iterator(), (JsonNode input) -> toRow(input, headers));
+    }
+
+    /**
+     * Returns the values of the object in header order, missing properties are null.
+     */
+    static String[] toRow(JsonNode input, String[] headers) {
+        String[] values = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            JsonNode val = input.get(headers[i]);
+            values[i] = (null != val) ? val.asText("") : null;
+        }
 
-            return values.toArray(new String[0]);
-        });
+        return values;
     }
 
     /**
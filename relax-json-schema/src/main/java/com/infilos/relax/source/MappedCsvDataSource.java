@@ -0,0 +1,440 @@
+package com.infilos.relax.source;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.io.ByteStreams;
+import com.infilos.relax.error.TableSchemaException;
+import com.infilos.relax.io.ByteOrderMarkStrippingInputStream;
+import de.siegmar.fastcsv.reader.CsvReader;
+import de.siegmar.fastcsv.reader.CsvRow;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * A UTF-8 CSV file, which is memory-mapped and cut into chunks at record boundaries, so the chunks are parsed independently, in parallel.
+ *
+ * Boundaries are found by one sequential scan over the bytes, which tracks quotes so line breaks inside quoted values never end a chunk,
+ * and are kept until the file changes. Each chunk is mapped and parsed by FastCSV on its own, at most a few chunks are held in memory.
+ *
+ * The delimiter, quote, header, empty line and surrounding space settings of the {@link CSVFormat} are applied,
+ * records must end with "\n" or "\r\n". Unlike {@link CsvDataSource}, spaces outside of quotes make a value unquoted,
+ * and formats with an escape character are rejected, quotes in values must be doubled.
+ * </pre>
+ */
+public class MappedCsvDataSource extends AbstractDataSource {
+    /**
+     * Default size of the chunks in bytes, chunks end at the first record boundary after it.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+    // the largest window mapped at once while scanning for boundaries
+    private static final int SCAN_WINDOW = 1 << 30;
+
+    private CSVFormat format = DataSource.getDefaultCsvFormat();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private ExecutorService pool = ForkJoinPool.commonPool();
+    private volatile Layout layout;
+
+    /**
+     * Constructor from a UTF-8 file, a UTF-8 BOM is skipped, files with other BOMs are rejected on reading.
+     *
+     * @param dataSource the CSV file
+     */
+    public MappedCsvDataSource(Path dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Sets the CSV format, which must not have an escape character, see the class comment.
+     *
+     * @param format the CSV format, or null for the default format
+     * @return this data source
+     * @throws TableSchemaException if the format has an escape character
+     */
+    public MappedCsvDataSource setFormat(CSVFormat format) {
+        if (format != null && format.getEscapeCharacter() != null) {
+            throw new TableSchemaException("Memory-mapped CSV does not support the escape character " + format.getEscapeCharacter());
+        }
+        this.format = format;
+        this.headers = null;
+        this.layout = null;
+        return this;
+    }
+
+    public CSVFormat getFormat() {
+        return (this.format != null)
+            ? this.format
+            : DataSource.getDefaultCsvFormat();
+    }
+
+    /**
+     * Sets the size of the chunks in bytes, each chunk is a task of {@link #parallelIterator(boolean)} or a split of {@link #spliterator()}.
+     *
+     * @param chunkSize the chunk size in bytes
+     * @return this data source
+     */
+    public MappedCsvDataSource setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.layout = null;
+        return this;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the pool which parses the chunks of {@link #parallelIterator(boolean)}, the common pool by default.
+     *
+     * @param pool the pool to parse on
+     * @return this data source
+     */
+    public MappedCsvDataSource setPool(ExecutorService pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public boolean hasReliableHeaders() {
+        try {
+            return this.headers() != null;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the headers of the format, or reads the first record, without scanning the file.
+     */
+    @Override
+    public String[] headers() throws Exception {
+        if (null == headers) {
+            String[] declared = getFormat().getHeader();
+            if (declared != null && declared.length > 0) {
+                headers = declared;
+            } else {
+                Path file = (Path) dataSource;
+                try (InputStream in = Files.newInputStream(file)) {
+                    ByteStreams.skipFully(in, bomLength(file));
+                    try (CsvReader reader = csvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                        Iterator<CsvRow> rows = reader.iterator();
+                        headers = rows.hasNext() ? toRow(rows.next()) : new String[0];
+                    }
+                }
+            }
+        }
+
+        return headers;
+    }
+
+    /**
+     * Returns the records in order, parsing one chunk after another on the calling thread.
+     */
+    @Override
+    public Iterator<String[]> iterator() throws Exception {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns the records in order, split between threads by chunks, for parallel streams.
+     */
+    @Override
+    public Spliterator<String[]> spliterator() throws Exception {
+        long[] boundaries = layout().boundaries;
+        return new ChunkSpliterator(boundaries, 0, boundaries.length - 1, null);
+    }
+
+    /**
+     * Returns the records of chunks parsed on the pool, a few chunks ahead of the records taken.
+     *
+     * @param ordered true to return the records in file order, false to return the chunks as soon as they are parsed
+     * @return an iterator over the records
+     *
+     * @throws Exception if the file can not be scanned
+     */
+    public Iterator<String[]> parallelIterator(boolean ordered) throws Exception {
+        long[] boundaries = layout().boundaries;
+        int window = 2 * (pool instanceof ForkJoinPool
+            ? ((ForkJoinPool) pool).getParallelism()
+            : Runtime.getRuntime().availableProcessors());
+
+        return new Iterator<String[]>() {
+            private final Deque<Future<List<String[]>>> pending = new ArrayDeque<>();
+            private final CompletionService<List<String[]>> completed = new ExecutorCompletionService<>(pool);
+            private int submitted = 0;
+            private Iterator<String[]> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    while (submitted < boundaries.length - 1 && pending.size() < window) {
+                        long start = boundaries[submitted];
+                        long end = boundaries[submitted + 1];
+                        pending.add(ordered
+                            ? pool.submit(() -> parseChunk(start, end))
+                            : completed.submit(() -> parseChunk(start, end)));
+                        submitted++;
+                    }
+                    if (pending.isEmpty()) {
+                        return false;
+                    }
+                    Future<List<String[]>> next = ordered ? pending.poll() : take();
+                    current = get(next).iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private Future<List<String[]>> take() {
+                try {
+                    Future<List<String[]>> next = completed.take();
+                    pending.remove(next);
+                    return next;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new TableSchemaException(ex);
+                }
+            }
+
+            private List<String[]> get(Future<List<String[]>> future) {
+                try {
+                    return future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new TableSchemaException(ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw new TableSchemaException(ex.getCause());
+                }
+            }
+        };
+    }
+
+    /**
+     * Maps the bytes between two record boundaries and parses their records.
+     */
+    List<String[]> parseChunk(long start, long end) {
+        try (FileChannel channel = FileChannel.open((Path) dataSource, StandardOpenOption.READ)) {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            List<String[]> rows = new ArrayList<>();
+            try (CsvReader reader = csvReader(new InputStreamReader(new ByteBufferBackedInputStream(chunk), StandardCharsets.UTF_8))) {
+                for (CsvRow row : reader) {
+                    rows.add(toRow(row));
+                }
+            }
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private CsvReader csvReader(Reader reader) {
+        CSVFormat format = getFormat();
+        CsvReader.CsvReaderBuilder builder = CsvReader.builder()
+            .fieldSeparator(format.getDelimiter())
+            .skipEmptyRows(format.getIgnoreEmptyLines());
+        if (format.getQuoteCharacter() != null) {
+            builder.quoteCharacter(format.getQuoteCharacter());
+        }
+        return builder.build(reader);
+    }
+
+    private String[] toRow(CsvRow row) {
+        CSVFormat format = getFormat();
+        boolean trim = format.getIgnoreSurroundingSpaces() || format.getTrim();
+        String nullString = format.getNullString();
+
+        String[] values = row.getFields().toArray(new String[0]);
+        for (int i = 0; i < values.length; i++) {
+            if (trim) {
+                values[i] = values[i].trim();
+            }
+            if (nullString != null && nullString.equals(values[i])) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+
+    private Layout layout() throws IOException {
+        Path file = (Path) dataSource;
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        Layout current = layout;
+        if (current == null || current.size != size || current.modified != modified) {
+            current = new Layout(size, modified, scan(file, size));
+            layout = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the offsets where chunks start, and the end of the file, skipping the BOM and the header record.
+     */
+    private long[] scan(Path file, long size) throws IOException {
+        CSVFormat format = getFormat();
+        String[] declared = format.getHeader();
+        boolean headerRecord = declared != null && (declared.length == 0 || format.getSkipHeaderRecord());
+        int quote = format.getQuoteCharacter() != null ? format.getQuoteCharacter() : -1;
+
+        long from = bomLength(file);
+        long[] boundaries = new long[16];
+        int count = 0;
+        boundaries[count++] = from;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean inQuotes = false;
+            long next = headerRecord ? from : from + chunkSize;
+            for (long windowStart = from; windowStart < size; windowStart += SCAN_WINDOW) {
+                int length = (int) Math.min(SCAN_WINDOW, size - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+                for (int i = 0; i < length; i++) {
+                    byte b = window.get(i);
+                    if (b == quote) {
+                        // an escaped quote toggles twice
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes && windowStart + i + 1 >= next) {
+                        if (count == boundaries.length) {
+                            boundaries = Arrays.copyOf(boundaries, count * 2);
+                        }
+                        boundaries[count++] = windowStart + i + 1;
+                        next = windowStart + i + 1 + chunkSize;
+                    }
+                }
+            }
+        }
+
+        if (boundaries[count - 1] < size) {
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count + 1);
+            }
+            boundaries[count++] = size;
+        }
+        if (headerRecord) {
+            // the first chunk is the header record
+            return count > 1 ? Arrays.copyOfRange(boundaries, 1, count) : new long[]{size};
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private static long bomLength(Path file) throws IOException {
+        try (ByteOrderMarkStrippingInputStream in = new ByteOrderMarkStrippingInputStream(Files.newInputStream(file))) {
+            ByteOrderMarkStrippingInputStream.BOM bom = in.getBOM();
+            if (bom == ByteOrderMarkStrippingInputStream.BOM.NONE) {
+                return 0;
+            }
+            if (bom == ByteOrderMarkStrippingInputStream.BOM.UTF_8) {
+                return bom.getBytes().length;
+            }
+            throw new TableSchemaException("Memory-mapped CSV must be UTF-8, found BOM " + bom);
+        }
+    }
+
+    private static final class Layout {
+        private final long size;
+        private final long modified;
+        private final long[] boundaries;
+
+        private Layout(long size, long modified, long[] boundaries) {
+            this.size = size;
+            this.modified = modified;
+            this.boundaries = boundaries;
+        }
+    }
+
+    /**
+     * Parses the chunks between two boundary indices one at a time, splits hand over the first half of the chunks left.
+     */
+    private final class ChunkSpliterator implements Spliterator<String[]> {
+        private final long[] boundaries;
+        private int chunk;
+        private final int end;
+        private Iterator<String[]> current;
+
+        private ChunkSpliterator(long[] boundaries, int chunk, int end, Iterator<String[]> current) {
+            this.boundaries = boundaries;
+            this.chunk = chunk;
+            this.end = end;
+            this.current = current;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String[]> action) {
+            while (current == null || !current.hasNext()) {
+                if (chunk >= end) {
+                    return false;
+                }
+                current = parseChunk(boundaries[chunk], boundaries[chunk + 1]).iterator();
+                chunk++;
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<String[]> trySplit() {
+            int remaining = end - chunk;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = chunk + remaining / 2;
+            // the records left of the current chunk come first
+            Spliterator<String[]> prefix = new ChunkSpliterator(boundaries, chunk, middle, current);
+            current = null;
+            chunk = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // bytes, an upper bound of the records left
+            return boundaries[end] - boundaries[chunk];
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
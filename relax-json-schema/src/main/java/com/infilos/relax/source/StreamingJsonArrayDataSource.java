@@ -0,0 +1,194 @@
+package com.infilos.relax.source;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.infilos.relax.error.JsonParsingException;
+import com.infilos.relax.error.TableSchemaException;
+import com.infilos.relax.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * <pre>
+ * A JSON array of JSON objects, which is parsed one object at a time from a new reader on every iteration instead of being held in memory.
+ * Rows are read like {@link JsonArrayDataSource} does.
+ *
+ * Headers are either set, for example to the field names of a Schema, or discovered from the keys of the first objects
+ * ({@link #setSampleSize(int)}), or from the keys of all objects in a pass which skips over all values without reading them.
+ * </pre>
+ */
+public class StreamingJsonArrayDataSource extends AbstractDataSource {
+    /**
+     * Sample size to discover the headers from all objects.
+     */
+    public static final int ALL_OBJECTS = -1;
+
+    private int sampleSize = ALL_OBJECTS;
+
+    /**
+     * Constructor from a file, which is opened again for every iteration. A BOM is detected and skipped.
+     *
+     * @param dataSource the JSON file
+     */
+    public StreamingJsonArrayDataSource(Path dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Constructor from a source of readers, a new reader is requested for every iteration.
+     *
+     * @param dataSource opens a new reader of the JSON data on each call, the reader is closed once parsed
+     */
+    public StreamingJsonArrayDataSource(Callable<? extends Reader> dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Sets the headers instead of discovering them, keys of the objects which are not among them are ignored.
+     *
+     * @param headers the column header names, null to discover them again
+     * @return this data source
+     */
+    public StreamingJsonArrayDataSource setHeaders(String[] headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    /**
+     * Discovers the headers from the keys of the first objects only, keys which first appear later on are ignored.
+     *
+     * @param sampleSize the count of objects to take the keys from, or {@link #ALL_OBJECTS}
+     * @return this data source
+     */
+    public StreamingJsonArrayDataSource setSampleSize(int sampleSize) {
+        if (sampleSize <= 0 && sampleSize != ALL_OBJECTS) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        this.headers = null;
+        return this;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    @Override
+    public boolean hasReliableHeaders() {
+        return false;
+    }
+
+    /**
+     * Returns the rows of a new parser, which is closed once the end of the array is read or the iterator is closed.
+     */
+    @Override
+    public CloseableIterator<String[]> iterator() throws Exception {
+        String[] headers = headers();
+        JsonParser parser = openArray();
+
+        return new CloseableIterator<String[]>() {
+            private JsonToken next;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (next == null && !parser.isClosed()) {
+                        next = parser.nextToken();
+                        if (next == JsonToken.END_ARRAY || next == null) {
+                            parser.close();
+                        }
+                    }
+                    return next != null && next != JsonToken.END_ARRAY;
+                } catch (IOException ex) {
+                    throw new JsonParsingException(ex);
+                }
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    JsonNode element = parser.readValueAsTree();
+                    next = null;
+                    return JsonArrayDataSource.toRow(element, headers);
+                } catch (IOException ex) {
+                    throw new JsonParsingException(ex);
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    parser.close();
+                } catch (IOException ex) {
+                    throw new JsonParsingException(ex);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the set headers, or discovers them once from the keys of the objects, without reading any values.
+     *
+     * @return the union of keys of the sampled objects, in order of appearance
+     */
+    @Override
+    public String[] headers() throws Exception {
+        if (null == headers) {
+            Set<String> keys = new LinkedHashSet<>();
+            try (JsonParser parser = openArray()) {
+                int objects = 0;
+                JsonToken token;
+                while ((sampleSize == ALL_OBJECTS || objects < sampleSize)
+                    && (token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            keys.add(parser.currentName());
+                            parser.nextToken();
+                            parser.skipChildren();
+                        }
+                        objects++;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            headers = keys.toArray(new String[0]);
+        }
+
+        return headers;
+    }
+
+    private JsonParser openArray() throws Exception {
+        JsonParser parser = JsonUtil.getInstance().createParser(openReader());
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new TableSchemaException("Data source is not a JSON array.");
+            }
+            return parser;
+        } catch (IOException | RuntimeException ex) {
+            parser.close();
+            throw ex;
+        }
+    }
+
+    private Reader openReader() throws Exception {
+        if (dataSource instanceof Path) {
+            return DataSource.openSkippingBOM(Files.newInputStream((Path) dataSource));
+        } else if (dataSource instanceof Callable) {
+            return (Reader) ((Callable<?>) dataSource).call();
+        } else {
+            throw new TableSchemaException("Data source is of invalid type.");
+        }
+    }
+}
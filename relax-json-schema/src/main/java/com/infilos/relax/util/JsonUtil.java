@@ -16,6 +16,7 @@ import com.infilos.relax.error.JsonSerializingException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.util.Objects;
 
 public final class JsonUtil {
@@ -132,6 +133,18 @@ public final class JsonUtil {
         }
     }
 
+    /**
+     * Creates a parser reading values one token at a time, which reads trees by {@link JsonParser#readValueAsTree()}.
+     * Closing the parser closes the reader.
+     */
+    public JsonParser createParser(Reader value) {
+        try {
+            return mapper.createParser(value);
+        } catch (IOException e) {
+            throw new JsonParsingException(e);
+        }
+    }
+
     public <T> T convertValue(Object value, Class<T> clazz) {
         return mapper.convertValue(value, clazz);
     }
@@ -1,6 +1,7 @@
 package com.infilos.relax.source;
 
 import com.infilos.relax.TestHelper;
+import com.infilos.relax.error.TableSchemaException;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -8,11 +9,17 @@ import org.junit.rules.ExpectedException;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.StringReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 public class DataSourceFormatsTest {
     @Rule
@@ -116,6 +123,19 @@ public class DataSourceFormatsTest {
         Assert.assertNotNull(ds);
     }
 
+    @Test
+    public void testCloseFileIteratorEarly() throws Exception {
+        DataSource ds = new CsvDataSource(new File("population.csv"), new File(TestHelper.getTestDataDirectory(), "data"));
+        Iterator<String[]> iterator = ds.iterator();
+        Assert.assertTrue(iterator instanceof CloseableIterator);
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertNotNull(iterator.next());
+
+        ((CloseableIterator<String[]>) iterator).close();
+        Assert.assertFalse(iterator.hasNext());
+        ((CloseableIterator<String[]>) iterator).close();
+    }
+
 
     @Test
     public void testUrlCreationCsv() throws Exception {
@@ -162,6 +182,132 @@ public class DataSourceFormatsTest {
         Assert.assertNotNull(ds);
     }
 
+    @Test
+    public void testPathCreationCsv() throws Exception {
+        Path inFile = new File(TestHelper.getTestDataDirectory(), "data/population.csv").toPath();
+        DataSource ds = DataSource.create(inFile);
+        Assert.assertTrue(ds instanceof CsvDataSource);
+        Assert.assertArrayEquals(populationHeaders, ds.headers());
+
+        // every iteration reads the file again
+        List<String[]> data = ds.data();
+        Assert.assertEquals(3, data.size());
+        Assert.assertArrayEquals(new String[]{"london", "2017", "8780000"}, data.get(0));
+        Assert.assertEquals(3, ds.data().size());
+    }
+
+    @Test
+    public void testPathCreationJson() throws Exception {
+        Path inFile = new File(TestHelper.getTestDataDirectory(), "data/population.json").toPath();
+        DataSource ds = DataSource.create(inFile);
+        Assert.assertTrue(ds instanceof StreamingJsonArrayDataSource);
+        Assert.assertEquals(3, ds.data().size());
+    }
+
+    @Test
+    public void testStreamingJsonArrayReadsLikeJsonArray() throws Exception {
+        String json = "[{\"city\":\"london\",\"year\":2017}, {\"year\":2017,\"population\":{\"total\":2240000}}, " +
+            "{\"city\":null,\"population\":[1,2]}, 3]";
+        JsonArrayDataSource inMemory = new JsonArrayDataSource(json);
+        StreamingJsonArrayDataSource streaming = new StreamingJsonArrayDataSource(() -> new StringReader(json));
+
+        Assert.assertArrayEquals(inMemory.headers(), streaming.headers());
+        List<String[]> expected = inMemory.data();
+        List<String[]> actual = streaming.data();
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), actual.get(i));
+        }
+        Assert.assertEquals(4, streaming.data().size());
+    }
+
+    @Test
+    public void testStreamingJsonArrayHeaders() throws Exception {
+        StreamingJsonArrayDataSource ds = new StreamingJsonArrayDataSource(() -> new StringReader(populationjson.replaceFirst(
+            "\"year\": \"2017\",", "")));
+
+        // the first object has no year
+        Assert.assertArrayEquals(new String[]{"city", "population", "year"}, ds.headers());
+        Assert.assertArrayEquals(new String[]{"city", "population"}, ds.setSampleSize(1).headers());
+        Assert.assertArrayEquals(new String[]{"rome", "2860000"}, ds.data().get(2));
+
+        ds.setHeaders(new String[]{"population", "city"});
+        Assert.assertArrayEquals(new String[]{"8780000", "london"}, ds.data().get(0));
+    }
+
+    @Test
+    public void testStreamingJsonArrayRejectsObject() throws Exception {
+        exception.expect(TableSchemaException.class);
+        new StreamingJsonArrayDataSource(() -> new StringReader("{\"city\":\"london\"}")).headers();
+    }
+
+    @Test
+    public void testMappedCsvReadsLikeCsv() throws Exception {
+        String csv = "\uFEFFcity,note,population\r\n" +
+            "london,\"big, old\",8780000\r\n" +
+            "paris,\"two\nlines\",2240000\n" +
+            "rome,\"say \"\"ciao\"\"\", 2860000 \n" +
+            "\n" +
+            "berlin,,3520000";
+        Path file = Files.createTempFile("mapped", ".csv");
+        try {
+            Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+            List<String[]> expected = new CsvDataSource(file).data();
+
+            // chunks of one record each, boundaries within quotes are skipped
+            MappedCsvDataSource ds = new MappedCsvDataSource(file).setChunkSize(1);
+            Assert.assertArrayEquals(new String[]{"city", "note", "population"}, ds.headers());
+            assertRowsEqual(expected, ds.data());
+            assertRowsEqual(expected, StreamSupport.stream(ds.spliterator(), true).collect(Collectors.toList()));
+
+            List<String[]> ordered = new ArrayList<>();
+            ds.parallelIterator(true).forEachRemaining(ordered::add);
+            assertRowsEqual(expected, ordered);
+
+            List<String[]> unordered = new ArrayList<>();
+            ds.parallelIterator(false).forEachRemaining(unordered::add);
+            Assert.assertEquals(expected.size(), unordered.size());
+
+            // one chunk for the whole file
+            assertRowsEqual(expected, new MappedCsvDataSource(file).data());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedCsvRejectsEscapeCharacter() throws Exception {
+        exception.expect(TableSchemaException.class);
+        new MappedCsvDataSource(Paths.get("data.csv")).setFormat(DataSource.getDefaultCsvFormat().withEscape('\\'));
+    }
+
+    @Test
+    public void testMappedCsvRejectsUtf16() throws Exception {
+        Path file = Files.createTempFile("mapped", ".csv");
+        try {
+            Files.write(file, "city\nlondon".getBytes(StandardCharsets.UTF_16));
+            exception.expect(TableSchemaException.class);
+            new MappedCsvDataSource(file).data();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertRowsEqual(List<String[]> expected, List<String[]> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testReaderCreationCsv() throws Exception {
+        DataSource ds = new CsvDataSource(() -> new StringReader(populationCsv));
+        Assert.assertArrayEquals(populationHeaders, ds.headers());
+        Assert.assertEquals(3, ds.data().size());
+        Assert.assertEquals(3, ds.data().size());
+    }
+
     @Test
     public void testZipInputFileCreationCsv() throws Exception {
         DataSource ds;
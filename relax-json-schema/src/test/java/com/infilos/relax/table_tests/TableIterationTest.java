@@ -3,22 +3,35 @@ package com.infilos.relax.table_tests;
 import com.infilos.relax.*;
 import com.infilos.relax.field.*;
 import com.infilos.relax.Schema;
+import com.infilos.relax.beans.GrossDomesticProductBean;
+import com.infilos.relax.error.TableRowException;
+import com.infilos.relax.iterator.SimpleTableIterator;
+import com.infilos.relax.iterator.TableIterator;
+import com.infilos.relax.error.TableSchemaException;
+import com.infilos.relax.schema.BeanSchema;
+import com.infilos.relax.source.CloseableIterator;
+import com.infilos.relax.source.CsvDataSource;
 import com.infilos.relax.source.DataSource;
+import com.infilos.relax.source.MappedCsvDataSource;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -27,6 +40,9 @@ public class TableIterationTest {
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
 
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
 
     @Test
     public void testFetchHeaders() throws Exception{
@@ -272,6 +288,131 @@ public class TableIterationTest {
     }
 
 
+    @Test
+    public void testIterateIntoReusedRow() throws Exception{
+        File testDataDir = TestHelper.getTestDataDirectory();
+        Table employeeTable = Table.fromSource(
+            new File("data/employee_data.csv"), testDataDir, getEmployeeTableSchema(), DataSource.getDefaultCsvFormat());
+        List<Object[]> expected = employeeTable.read(true);
+
+        TableIterator<Object[]> iter = (TableIterator<Object[]>) employeeTable.iterator();
+        Object[] row = null;
+        for (Object[] expectedRow : expected) {
+            Object[] previous = row;
+            row = iter.next(row);
+            Assert.assertTrue(null == previous || previous == row);
+            Assert.assertTrue(Arrays.deepEquals(expectedRow, row));
+        }
+        Assert.assertFalse(iter.hasNext());
+
+        TableIterator<Map<String, Object>> keyedIter = (TableIterator<Map<String, Object>>) employeeTable.keyedIterator();
+        Map<String, Object> keyedRow = keyedIter.next(new HashMap<>());
+        keyedRow = keyedIter.next(keyedRow);
+        Assert.assertEquals("Frank McKrank", keyedRow.get("name"));
+        Assert.assertEquals(7, keyedRow.size());
+
+        SimpleTableIterator stringIter = (SimpleTableIterator) employeeTable.stringArrayIterator();
+        String[] stringRow = stringIter.next(new String[7]);
+        Assert.assertSame(stringRow, stringIter.next(stringRow));
+        Assert.assertEquals("Frank McKrank", stringRow[1]);
+    }
+
+    @Test
+    public void testStreamCastDataWithSchema() throws Exception{
+        File testDataDir = TestHelper.getTestDataDirectory();
+        Table employeeTable = Table.fromSource(
+            new File(testDataDir, "data/employee_data.csv").toPath(), getEmployeeTableSchema(), DataSource.getDefaultCsvFormat());
+        List<Object[]> expected = employeeTable.read(true);
+
+        List<Object[]> sequential = employeeTable.stream(true).collect(Collectors.toList());
+        List<Object[]> parallel = employeeTable.parallelStream(true, true, null).collect(Collectors.toList());
+        Assert.assertEquals(expected.size(), sequential.size());
+        Assert.assertEquals(expected.size(), parallel.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertTrue(Arrays.deepEquals(expected.get(i), sequential.get(i)));
+            Assert.assertTrue(Arrays.deepEquals(expected.get(i), parallel.get(i)));
+        }
+
+        // parsed and cast in chunks of one row each
+        employeeTable.setDataSourceFormat(new MappedCsvDataSource(new File(testDataDir, "data/employee_data.csv").toPath())
+            .setFormat(DataSource.getDefaultCsvFormat())
+            .setChunkSize(1));
+        parallel = employeeTable.parallelStream(true, true, null).collect(Collectors.toList());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertTrue(Arrays.deepEquals(expected.get(i), parallel.get(i)));
+        }
+
+        List<Map<String, Object>> keyed = employeeTable.keyedParallelStream(true, false, null).collect(Collectors.toList());
+        Assert.assertEquals(expected.size(), keyed.size());
+        Assert.assertTrue(keyed.stream().anyMatch(row -> "John Doe".equals(row.get("name"))));
+    }
+
+    @Test
+    public void testParallelStreamCollectsErrors() throws Exception{
+        Path file = folder.newFile("ids.csv").toPath();
+        Files.write(file, "id,title\n1,foo\nbar,baz\n3,qux\n".getBytes(StandardCharsets.UTF_8));
+        Schema schema = new Schema();
+        schema.addField(new IntegerField("id"));
+        schema.addField(new StringField("title"));
+        Table table = Table.fromMappedCsv(file, schema, DataSource.getDefaultCsvFormat());
+        table.setDataSourceFormat(new MappedCsvDataSource(file).setFormat(DataSource.getDefaultCsvFormat()).setChunkSize(1));
+
+        List<Exception> errors = new ArrayList<>();
+        List<Object[]> rows = table.parallelStream(true, true, errors).collect(Collectors.toList());
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals(BigInteger.valueOf(3), rows.get(1)[0]);
+        Assert.assertEquals(1, errors.size());
+        Assert.assertArrayEquals(new String[]{"bar", "baz"}, ((TableRowException) errors.get(0)).getRow());
+
+        exception.expect(TableSchemaException.class);
+        table.stream(true).count();
+    }
+
+    @Test
+    public void testStreamClosesDataSource() throws Exception{
+        Path file = folder.newFile("ids.csv").toPath();
+        Files.write(file, "id,title\n1,foo\n2,bar\n".getBytes(StandardCharsets.UTF_8));
+        Schema schema = new Schema();
+        schema.addField(new IntegerField("id"));
+        schema.addField(new StringField("title"));
+        Table table = Table.fromSource(file, schema, DataSource.getDefaultCsvFormat());
+
+        List<CloseableIterator<String[]>> opened = new ArrayList<>();
+        table.setDataSourceFormat(new CsvDataSource(file) {
+            @Override
+            public CloseableIterator<String[]> iterator() throws Exception {
+                CloseableIterator<String[]> iterator = super.iterator();
+                opened.add(iterator);
+                return iterator;
+            }
+        }.setFormat(DataSource.getDefaultCsvFormat()));
+
+        try (Stream<Object[]> rows = table.stream(true)) {
+            Assert.assertEquals(BigInteger.ONE, rows.findFirst().get()[0]);
+            Assert.assertTrue(opened.get(0).hasNext());
+        }
+        Assert.assertFalse(opened.get(0).hasNext());
+
+        exception.expect(TableSchemaException.class);
+        new Table().keyedStream(true, null);
+    }
+
+    @Test
+    public void testBeanParallelStream() throws Exception{
+        File testDataDir = TestHelper.getTestDataDirectory();
+        Table gdpTable = Table.fromSource(
+            new File(testDataDir, "data/gdp.csv").toPath(), BeanSchema.infer(GrossDomesticProductBean.class), DataSource.getDefaultCsvFormat());
+
+        List<String> expected = new ArrayList<>();
+        gdpTable.iterator(GrossDomesticProductBean.class, false).forEachRemaining(bean -> expected.add(bean.toString()));
+
+        List<String> records = gdpTable.parallelStream(GrossDomesticProductBean.class, true, null)
+            .map(Object::toString)
+            .collect(Collectors.toList());
+        Assert.assertEquals(11507, records.size());
+        Assert.assertEquals(expected, records);
+    }
+
     private Schema getEmployeeTableSchema(){
         Schema schema = new Schema();
 